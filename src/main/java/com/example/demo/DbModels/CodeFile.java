@@ -48,6 +48,11 @@ public class CodeFile {
     @Lob
     private String contextJson;
 
+    // Parsed LLM issues for this file (JSON of category -> IssueItem list); reused by incremental runs
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String issuesJson;
+
 
     @ElementCollection
     @CollectionTable(name = "codefile_taking", joinColumns = @JoinColumn(name = "codefile_id"))
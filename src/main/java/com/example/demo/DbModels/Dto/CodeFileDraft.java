@@ -0,0 +1,21 @@
+package com.example.demo.DbModels.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Unsaved per-file metadata collected during the tree walk and flushed in batches.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeFileDraft {
+    // Repo-relative normalized path
+    private String path;
+    private String language;
+    private Integer sizeBytes;
+    private Integer lines;
+    private String contentHash;
+    private String contentSnippet;
+}
@@ -0,0 +1,10 @@
+package com.example.demo.DbModels.Dto;
+
+public interface FolderFileProjection {
+    String getFolderPath();
+    String getPath();
+    String getContextJson();
+    String getContentHash();
+    // Reviewed and stored (summary or issues), even if the summary is blank
+    Boolean getEvaluated();
+}
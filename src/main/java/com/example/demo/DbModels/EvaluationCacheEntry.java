@@ -0,0 +1,49 @@
+package com.example.demo.DbModels;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Parsed LLM evaluation of a file, reusable by any submission containing identical content.
+ * Keyed by (contentHash, language, promptVersion, model).
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = {"issuesJson", "summary"})
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "uq_evalcache_key", columnNames = {"cacheKey"}),
+        indexes = @Index(name = "idx_evalcache_last_accessed", columnList = "lastAccessedAt")
+)
+public class EvaluationCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    // SHA-256 over contentHash|language|promptVersion|model
+    @Column(nullable = false, length = 64)
+    private String cacheKey;
+
+    @Column(nullable = false, length = 64)
+    private String contentHash;
+    private String language;
+    private String promptVersion;
+    private String model;
+
+    // Map<String, List<IssueItem>> as JSON (errors / improvements / thingsDoneRight)
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String issuesJson;
+
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String summary;
+
+    private Instant createdAt;
+    private Instant lastAccessedAt;
+    private long hitCount;
+}
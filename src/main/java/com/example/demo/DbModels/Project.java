@@ -21,6 +21,11 @@ public class Project {
         @Column(nullable = false)
         private  String Name;
 
+        // Source repo and the submission this one resubmits (both optional; used for incremental runs)
+        private String repoUrl;
+
+        private Long parentSubmissionId;
+
     @Lob
     @Column(columnDefinition = "TEXT")
     private String repoSummary;
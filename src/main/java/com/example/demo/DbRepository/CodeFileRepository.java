@@ -2,20 +2,29 @@ package com.example.demo.DbRepository;
 
 import com.example.demo.DbModels.CodeFile;
 
+import com.example.demo.DbModels.Dto.FileSummaryProjection;
+import com.example.demo.DbModels.Dto.FolderFileProjection;
 import com.example.demo.DbModels.Folder;
 import com.example.demo.DbModels.Project;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 public interface CodeFileRepository extends JpaRepository<CodeFile, Long> {
     List<CodeFile> findByProject(Project project);
     List<CodeFile> findAllByProject(Project project);
 
     Optional<CodeFile> findByProjectAndPath(Project project, String path);
+    List<CodeFile> findByProjectAndPathIn(Project project, Collection<String> paths);
     @Query("SELECT c.path FROM CodeFile c WHERE c.folder.id = :folderId")
     List<String> findFilePathsByFolderId(@Param("folderId") Long folderId);
 
@@ -29,6 +38,13 @@ public interface CodeFileRepository extends JpaRepository<CodeFile, Long> {
     @Query("SELECT f.path AS path, f.contextJson AS contextJson FROM CodeFile f WHERE f.project = :project")
     List<FileSummaryProjection> findSummariesByProject(@Param("project") Project project);
 
+    // Whole project in one round trip (folder path, file path, summary, hash, evaluated); must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT fo.path AS folderPath, f.path AS path, f.contextJson AS contextJson, f.contentHash AS contentHash, " +
+            "CASE WHEN f.contextJson IS NOT NULL OR f.issuesJson IS NOT NULL THEN true ELSE false END AS evaluated " +
+            "FROM CodeFile f JOIN f.folder fo WHERE f.project = :project")
+    Stream<FolderFileProjection> streamFolderFilesByProject(@Param("project") Project project);
+
 
 
 
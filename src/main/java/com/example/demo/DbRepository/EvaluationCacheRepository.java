@@ -0,0 +1,25 @@
+package com.example.demo.DbRepository;
+
+import com.example.demo.DbModels.EvaluationCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface EvaluationCacheRepository extends JpaRepository<EvaluationCacheEntry, Long> {
+    Optional<EvaluationCacheEntry> findByCacheKey(String cacheKey);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE EvaluationCacheEntry e SET e.lastAccessedAt = :now, e.hitCount = e.hitCount + 1 WHERE e.id = :id")
+    int touch(@Param("id") Long id, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EvaluationCacheEntry e WHERE e.lastAccessedAt < :cutoff")
+    int deleteNotAccessedSince(@Param("cutoff") Instant cutoff);
+}
@@ -4,6 +4,7 @@ import com.example.demo.DbModels.Folder;
 import com.example.demo.DbModels.Project;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,6 +12,7 @@ public interface FolderRepository extends JpaRepository<Folder, Long> {
     List<Folder> findByProject(Project project);
     Optional<Folder> findByProjectAndPath(Project project, String path); // path="" for root
     boolean existsByProjectAndPath(Project project, String path);
+    List<Folder> findByProjectAndPathIn(Project project, Collection<String> paths);
     List<Folder> findAllFoldersByProjectId(Long projectId);
 
 }
\ No newline at end of file
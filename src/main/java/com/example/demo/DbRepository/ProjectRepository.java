@@ -12,4 +12,7 @@ import java.util.Optional;
 public interface ProjectRepository extends JpaRepository<Project, Long> {
     Optional<Project> findBySubmissionId(Long submissionId);
 
+    // Latest earlier submission of the same repository
+    Optional<Project> findFirstByRepoUrlAndSubmissionIdNotOrderByIdDesc(String repoUrl, Long submissionId);
+
 }
\ No newline at end of file
@@ -0,0 +1,259 @@
+package com.example.demo.DbService.Impl;
+
+import com.example.demo.DbModels.EvaluationCacheEntry;
+import com.example.demo.DbRepository.EvaluationCacheRepository;
+import com.example.demo.model.IssueItem;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent cache of parsed per-file LLM evaluations keyed by (contentHash, language, promptVersion, model).
+ *
+ * - Memory tier: bounded LRU (evaluation.cache.memory-entries) in front of the DB table.
+ * - DB tier: rows not read for evaluation.cache.ttl-hours are swept at most once per hour.
+ * - Both tiers expire entries by last access (sliding TTL). Memory hits also refresh the DB row,
+ *   at most once per TTL/10, so the sweep never deletes rows that are hot in memory.
+ */
+@Slf4j
+@Service
+public class EvaluationCacheService {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final TypeReference<Map<String, List<IssueItem>>> ISSUES_TYPE = new TypeReference<>() {};
+    private static final long SWEEP_INTERVAL_MS = Duration.ofHours(1).toMillis();
+
+    private final EvaluationCacheRepository repository;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration touchInterval;
+    private final Map<String, MemoryEntry> memory;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile long nextSweepAtMs;
+
+    public EvaluationCacheService(EvaluationCacheRepository repository,
+                                  @Value("${evaluation.cache.enabled:true}") boolean enabled,
+                                  @Value("${evaluation.cache.ttl-hours:168}") long ttlHours,
+                                  @Value("${evaluation.cache.memory-entries:2000}") int memoryEntries) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.ttl = Duration.ofHours(Math.max(1, ttlHours));
+        this.touchInterval = ttl.dividedBy(10);
+        int maxEntries = Math.max(1, memoryEntries);
+        this.memory = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MemoryEntry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cached issues + summary for identical content evaluated with the same prompt and model.
+     */
+    public Optional<CachedEvaluation> lookup(String contentHash, String language, String promptVersion, String model) {
+        if (!enabled || contentHash == null || contentHash.isBlank()) return Optional.empty();
+        String key = cacheKey(contentHash, language, promptVersion, model);
+        Instant now = Instant.now();
+
+        MemoryEntry hit = null;
+        boolean touch = false;
+        synchronized (memory) {
+            MemoryEntry entry = memory.get(key);
+            if (entry != null) {
+                if (isExpired(entry.lastAccessedAt, now)) {
+                    memory.remove(key);
+                    evictions.incrementAndGet();
+                } else {
+                    entry.lastAccessedAt = now;
+                    touch = !entry.lastTouchedAt.plus(touchInterval).isAfter(now);
+                    if (touch) entry.lastTouchedAt = now;
+                    hit = entry;
+                }
+            }
+        }
+        if (hit != null) {
+            if (touch) touchRow(key, hit, now);
+            hits.incrementAndGet();
+            memoryHits.incrementAndGet();
+            return Optional.of(hit.value);
+        }
+
+        try {
+            Optional<EvaluationCacheEntry> row = repository.findByCacheKey(key);
+            if (row.isPresent() && !isExpired(row.get().getLastAccessedAt(), now)) {
+                EvaluationCacheEntry e = row.get();
+                CachedEvaluation value = new CachedEvaluation(mapper.readValue(e.getIssuesJson(), ISSUES_TYPE), e.getSummary());
+                repository.touch(e.getId(), now);
+                remember(key, value, e.getId(), now);
+                hits.incrementAndGet();
+                return Optional.of(value);
+            }
+        } catch (Exception e) {
+            log.warn("Evaluation cache lookup failed for {}: {}", contentHash, e.getMessage());
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Store a successful evaluation. Concurrent stores of the same key keep the first row.
+     */
+    public void store(String contentHash, String language, String promptVersion, String model,
+                      Map<String, List<IssueItem>> issues, String summary) {
+        if (!enabled || contentHash == null || contentHash.isBlank()) return;
+        String key = cacheKey(contentHash, language, promptVersion, model);
+        Instant now = Instant.now();
+        CachedEvaluation value = new CachedEvaluation(issues, summary);
+        MemoryEntry entry = remember(key, value, null, now);
+
+        try {
+            Optional<EvaluationCacheEntry> existing = repository.findByCacheKey(key);
+            if (existing.isPresent()) {
+                entry.rowId = existing.get().getId();
+            } else {
+                EvaluationCacheEntry e = new EvaluationCacheEntry();
+                e.setCacheKey(key);
+                e.setContentHash(contentHash);
+                e.setLanguage(language);
+                e.setPromptVersion(promptVersion);
+                e.setModel(model);
+                e.setIssuesJson(mapper.writeValueAsString(issues));
+                e.setSummary(summary);
+                e.setCreatedAt(now);
+                e.setLastAccessedAt(now);
+                entry.rowId = repository.save(e).getId();
+                stores.incrementAndGet();
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Evaluation cache entry {} already stored concurrently", key);
+        } catch (Exception e) {
+            log.warn("Evaluation cache store failed for {}: {}", contentHash, e.getMessage());
+        }
+        sweepIfDue();
+    }
+
+    /**
+     * Delete DB rows not accessed within the TTL.
+     */
+    public int evictExpired() {
+        int deleted = repository.deleteNotAccessedSince(Instant.now().minus(ttl));
+        evictions.addAndGet(deleted);
+        if (deleted > 0) {
+            log.info("Evaluation cache evicted {} expired rows", deleted);
+        }
+        return deleted;
+    }
+
+    /**
+     * hits, memoryHits, misses, hitRatePercent, stores, evictions, memoryEntries.
+     */
+    public Map<String, Long> getStats() {
+        long h = hits.get();
+        long m = misses.get();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", h);
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("misses", m);
+        stats.put("hitRatePercent", (h + m) == 0 ? 0 : (h * 100) / (h + m));
+        stats.put("stores", stores.get());
+        stats.put("evictions", evictions.get());
+        synchronized (memory) {
+            stats.put("memoryEntries", (long) memory.size());
+        }
+        return stats;
+    }
+
+    private MemoryEntry remember(String key, CachedEvaluation value, Long rowId, Instant now) {
+        MemoryEntry entry = new MemoryEntry(value, rowId, now);
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        return entry;
+    }
+
+    // Extend the DB row's TTL for a memory hit; the row id is looked up once if not known yet
+    private void touchRow(String key, MemoryEntry entry, Instant now) {
+        try {
+            Long rowId = entry.rowId;
+            if (rowId == null) {
+                rowId = repository.findByCacheKey(key).map(EvaluationCacheEntry::getId).orElse(null);
+                if (rowId == null) return;
+                entry.rowId = rowId;
+            }
+            repository.touch(rowId, now);
+        } catch (Exception e) {
+            log.warn("Evaluation cache touch failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private boolean isExpired(Instant lastAccessedAt, Instant now) {
+        return lastAccessedAt == null || lastAccessedAt.plus(ttl).isBefore(now);
+    }
+
+    private void sweepIfDue() {
+        long now = System.currentTimeMillis();
+        if (now < nextSweepAtMs) return;
+        nextSweepAtMs = now + SWEEP_INTERVAL_MS;
+        try {
+            evictExpired();
+        } catch (Exception e) {
+            log.warn("Evaluation cache sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private static String cacheKey(String contentHash, String language, String promptVersion, String model) {
+        String raw = contentHash + "|" + Objects.toString(language, "") + "|"
+                + Objects.toString(promptVersion, "") + "|" + Objects.toString(model, "");
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class MemoryEntry {
+        private final CachedEvaluation value;
+        // DB row backing this entry, null until known
+        private volatile Long rowId;
+        private Instant lastAccessedAt;
+        // Last time the DB row's lastAccessedAt was refreshed
+        private Instant lastTouchedAt;
+
+        MemoryEntry(CachedEvaluation value, Long rowId, Instant lastAccessedAt) {
+            this.value = value;
+            this.rowId = rowId;
+            this.lastAccessedAt = lastAccessedAt;
+            this.lastTouchedAt = lastAccessedAt;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class CachedEvaluation {
+        private Map<String, List<IssueItem>> issues;
+        private String summary;
+    }
+}
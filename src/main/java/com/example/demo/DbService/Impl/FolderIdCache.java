@@ -0,0 +1,49 @@
+package com.example.demo.DbService.Impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-project folder path -> folder id cache used by ProjectStorageService.
+ * Entries live for the duration of an evaluation and are dropped with evict(projectId).
+ */
+final class FolderIdCache {
+
+    // projectId -> (normalized folder path -> folder id)
+    private final Map<Long, Map<String, Long>> idsByProject = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    Long get(Long projectId, String path) {
+        if (projectId == null) return null;
+        Map<String, Long> ids = idsByProject.get(projectId);
+        Long id = ids != null ? ids.get(path) : null;
+        if (id != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return id;
+    }
+
+    void put(Long projectId, String path, Long folderId) {
+        if (projectId == null || folderId == null) return;
+        idsByProject.computeIfAbsent(projectId, k -> new ConcurrentHashMap<>()).put(path, folderId);
+    }
+
+    void evict(Long projectId) {
+        if (projectId != null) idsByProject.remove(projectId);
+    }
+
+    Map<String, Long> stats() {
+        Map<String, Long> m = new LinkedHashMap<>();
+        m.put("hits", hits.get());
+        m.put("misses", misses.get());
+        m.put("cachedProjects", (long) idsByProject.size());
+        m.put("cachedFolders", idsByProject.values().stream().mapToLong(Map::size).sum());
+        return m;
+    }
+}
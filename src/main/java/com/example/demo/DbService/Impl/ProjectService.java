@@ -23,10 +23,34 @@ public class ProjectService {
         return projectRepository.save(p);
     }
 
+    public Project create(String name, Long submissionId, String repoUrl, Long parentSubmissionId) {
+        Project p = new Project();
+        p.setName(name);
+        p.setSubmissionId(submissionId);
+        p.setRepoUrl(repoUrl);
+        p.setParentSubmissionId(parentSubmissionId);
+        return projectRepository.save(p);
+    }
+
     public Optional<Project> findBySubmissionId(Long submissionId) {
         return projectRepository.findBySubmissionId(submissionId);
     }
 
+    /**
+     * Earlier submission this project should be diffed against: the explicit parent if set,
+     * otherwise the latest other submission of the same repo URL.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Project> findPreviousSubmission(Project project) {
+        if (project.getParentSubmissionId() != null) {
+            return projectRepository.findBySubmissionId(project.getParentSubmissionId());
+        }
+        if (project.getRepoUrl() == null || project.getRepoUrl().isBlank()) {
+            return Optional.empty();
+        }
+        return projectRepository.findFirstByRepoUrlAndSubmissionIdNotOrderByIdDesc(project.getRepoUrl(), project.getSubmissionId());
+    }
+
 
 
 
@@ -47,5 +71,4 @@ public class ProjectService {
         return projectRepository.findBySubmissionId(submissionId)
                 .map(Project::getRepoSummary);
     }
-
-
+}
@@ -2,18 +2,25 @@ package com.example.demo.DbService.Impl;
 
 import com.example.demo.DbModels.CodeFile;
 
+import com.example.demo.DbModels.Dto.CodeFileDraft;
+import com.example.demo.DbModels.Dto.FileSummaryProjection;
+import com.example.demo.DbModels.Dto.FolderFileProjection;
 import com.example.demo.DbModels.Folder;
 import com.example.demo.DbModels.Project;
 import com.example.demo.DbRepository.CodeFileRepository;
 import com.example.demo.DbRepository.FolderRepository;
+import com.example.demo.DbRepository.ProjectRepository;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -23,38 +30,128 @@ public class ProjectStorageService {
     private final CodeFileRepository codeFileRepository;
     private final ProjectRepository projectRepository;
 
+    // Folder ids resolved during an evaluation; avoids one findByProjectAndPath per upserted file
+    private final FolderIdCache folderIdCache = new FolderIdCache();
 
     /* ---------- Public API ---------- */
 
     @Transactional
     public Folder getOrCreateRootFolder(Project project) {
-        return folderRepository.findByProjectAndPath(project, "")
-                .orElseGet(() -> {
-                    Folder root = new Folder();
-                    root.setProject(project);
-                    root.setPath("");
-                    root.setName(".");
-                    return folderRepository.save(root);
-                });
+        return resolveFolder(project, "");
     }
 
     @Transactional
     public Folder getOrCreateFolder(Project project, String folderPath) {
-        String path = normalize(folderPath);
-        if (path.isEmpty()) {
-            return getOrCreateRootFolder(project);
+        return resolveFolder(project, normalize(folderPath));
+    }
+
+    /**
+     * Load every folder of the project with a single query into the folder-id cache.
+     */
+    @Transactional(readOnly = true)
+    public int preloadFolders(Project project) {
+        List<Folder> folders = folderRepository.findByProject(project);
+        for (Folder f : folders) {
+            folderIdCache.put(project.getId(), f.getPath(), f.getId());
         }
-        return folderRepository.findByProjectAndPath(project, path)
-                .orElseGet(() -> {
-                    Folder f = new Folder();
-                    f.setProject(project);
-                    f.setPath(path);
-                    String name = path;
-                    int slash = path.lastIndexOf('/');
-                    if (slash >= 0) name = path.substring(slash + 1);
-                    f.setName(name.isEmpty() ? "." : name);
-                    return folderRepository.save(f);
-                });
+        return folders.size();
+    }
+
+    /**
+     * Drop cached folder ids for a project (call once its evaluation has finished).
+     */
+    public void evictFolderCache(Project project) {
+        folderIdCache.evict(project.getId());
+    }
+
+    /**
+     * Folder cache counters: hits, misses (= lookups that went to the DB), cachedProjects, cachedFolders.
+     */
+    public Map<String, Long> getFolderCacheStats() {
+        return folderIdCache.stats();
+    }
+
+    /**
+     * Persist a batch of folders and files in a single transaction.
+     * Folders referenced by the files are resolved with one IN query, missing ones are
+     * created with saveAll, and files are upserted with saveAll so Hibernate can
+     * group the inserts into JDBC batches (see hibernate.jdbc.batch_size).
+     */
+    @Transactional
+    public void saveFolderAndFileBatch(Project project, Collection<String> folderPaths, Collection<CodeFileDraft> files) {
+        // 1) Folders: everything explicitly discovered plus every parent of a file in the batch
+        Set<String> wantedFolders = new LinkedHashSet<>();
+        if (folderPaths != null) {
+            for (String fp : folderPaths) wantedFolders.add(normalize(fp));
+        }
+        if (files != null) {
+            for (CodeFileDraft d : files) wantedFolders.add(folderOf(d.getPath()));
+        }
+
+        Map<String, Folder> foldersByPath = new HashMap<>();
+        Set<String> uncached = new LinkedHashSet<>();
+        for (String path : wantedFolders) {
+            Long id = folderIdCache.get(project.getId(), path);
+            if (id != null) {
+                foldersByPath.put(path, folderRepository.getReferenceById(id));
+            } else {
+                uncached.add(path);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            for (Folder f : folderRepository.findByProjectAndPathIn(project, uncached)) {
+                foldersByPath.put(f.getPath(), f);
+                cacheFolder(project, f);
+            }
+        }
+        List<Folder> newFolders = new ArrayList<>();
+        for (String path : uncached) {
+            if (!foldersByPath.containsKey(path)) {
+                Folder f = newFolder(project, path);
+                foldersByPath.put(path, f);
+                newFolders.add(f);
+            }
+        }
+        if (!newFolders.isEmpty()) {
+            for (Folder f : folderRepository.saveAll(newFolders)) {
+                cacheFolder(project, f);
+            }
+        }
+
+        if (files == null || files.isEmpty()) return;
+
+        // 2) Files: one lookup for the whole batch, then a single saveAll
+        Map<String, CodeFileDraft> draftsByPath = new LinkedHashMap<>();
+        for (CodeFileDraft d : files) draftsByPath.put(normalize(d.getPath()), d);
+
+        Map<String, CodeFile> existing = new HashMap<>();
+        for (CodeFile cf : codeFileRepository.findByProjectAndPathIn(project, draftsByPath.keySet())) {
+            existing.put(cf.getPath(), cf);
+        }
+
+        List<CodeFile> toSave = new ArrayList<>(draftsByPath.size());
+        for (Map.Entry<String, CodeFileDraft> e : draftsByPath.entrySet()) {
+            String path = e.getKey();
+            CodeFileDraft d = e.getValue();
+            CodeFile file = existing.get(path);
+            if (file == null) {
+                file = new CodeFile();
+                file.setProject(project);
+                file.setPath(path);
+            }
+            file.setFolder(foldersByPath.get(folderOf(path)));
+            file.setLanguage(d.getLanguage());
+            file.setSizeBytes(d.getSizeBytes());
+            file.setLines(d.getLines());
+            file.setContentHash(d.getContentHash());
+            file.setContentSnippet(d.getContentSnippet());
+
+            // Same in-place semantics as saveOrUpdateFile: taking/calling are filled by the analyzer later
+            if (file.getTaking() == null) file.setTaking(new LinkedHashSet<>()); else file.getTaking().clear();
+            if (file.getCalling() == null) file.setCalling(new LinkedHashSet<>()); else file.getCalling().clear();
+            toSave.add(file);
+        }
+        codeFileRepository.saveAll(toSave);
     }
 
     // Optional: if you also set collections here, use the same in-place pattern.
@@ -102,6 +199,40 @@ public class ProjectStorageService {
         });
     }
 
+    /**
+     * Replace taking/calling for many files in one transaction (one IN query + saveAll).
+     * Files missing from the DB are created, mirroring upsertFile.
+     */
+    @Transactional
+    public void saveTakingAndCallingBatch(Project project,
+                                          Map<String, ? extends Collection<String>> takingByPath,
+                                          Map<String, ? extends Collection<String>> callingByPath) {
+        Set<String> paths = new LinkedHashSet<>();
+        takingByPath.keySet().forEach(p -> paths.add(normalize(p)));
+        callingByPath.keySet().forEach(p -> paths.add(normalize(p)));
+        if (paths.isEmpty()) return;
+
+        Map<String, CodeFile> existing = new HashMap<>();
+        for (CodeFile cf : codeFileRepository.findByProjectAndPathIn(project, paths)) {
+            existing.put(cf.getPath(), cf);
+        }
+
+        List<CodeFile> toSave = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            CodeFile file = existing.get(path);
+            if (file == null) {
+                file = ensureCodeFile(project, path);
+            }
+            // MUTATE IN-PLACE to keep Hibernate's PersistentSet happy
+            if (file.getTaking() == null) file.setTaking(new LinkedHashSet<>()); else file.getTaking().clear();
+            file.getTaking().addAll(toSet(takingByPath.get(path)));
+            if (file.getCalling() == null) file.setCalling(new LinkedHashSet<>()); else file.getCalling().clear();
+            file.getCalling().addAll(toSet(callingByPath.get(path)));
+            toSave.add(file);
+        }
+        codeFileRepository.saveAll(toSave);
+    }
+
     @Transactional
     public CodeFile setFileContext(Project project, String filePath, String contextJson) {
         return upsertFile(project, filePath, file -> file.setContextJson(contextJson));
@@ -125,6 +256,58 @@ public class ProjectStorageService {
         return true;
     }
 
+    /**
+     * Store a file's summary and parsed issues (JSON) in one write.
+     */
+    @Transactional
+    public boolean saveFileEvaluation(Long submissionId, String repoRelPath, String summary, String issuesJson) {
+        Optional<Project> projectOpt = projectRepository.findBySubmissionId(submissionId);
+        if (projectOpt.isEmpty()) {
+            return false;
+        }
+
+        Project project = projectOpt.get();
+        if (codeFileRepository.findByProjectAndPath(project, repoRelPath).isEmpty()) {
+            return false;
+        }
+
+        upsertFile(project, repoRelPath, file -> {
+            if (summary != null && !summary.isEmpty()) file.setContextJson(summary);
+            file.setIssuesJson(issuesJson);
+        });
+        return true;
+    }
+
+    /**
+     * Copy summaries and issues of unchanged files from an earlier submission.
+     *
+     * @return number of files copied
+     */
+    @Transactional
+    public int copyFileEvaluations(Long fromSubmissionId, Long toSubmissionId, Collection<String> paths) {
+        if (paths == null || paths.isEmpty()) return 0;
+        Project from = projectRepository.findBySubmissionId(fromSubmissionId)
+                .orElseThrow(() -> new IllegalArgumentException("Project not found with submissionId: " + fromSubmissionId));
+        Project to = projectRepository.findBySubmissionId(toSubmissionId)
+                .orElseThrow(() -> new IllegalArgumentException("Project not found with submissionId: " + toSubmissionId));
+
+        Map<String, CodeFile> source = new HashMap<>();
+        for (CodeFile f : codeFileRepository.findByProjectAndPathIn(from, paths)) {
+            source.put(f.getPath(), f);
+        }
+
+        List<CodeFile> toSave = new ArrayList<>();
+        for (CodeFile target : codeFileRepository.findByProjectAndPathIn(to, paths)) {
+            CodeFile prior = source.get(target.getPath());
+            if (prior == null) continue;
+            target.setContextJson(prior.getContextJson());
+            target.setIssuesJson(prior.getIssuesJson());
+            toSave.add(target);
+        }
+        codeFileRepository.saveAll(toSave);
+        return toSave.size();
+    }
+
     public List<Folder> findAllFoldersByProjectId(Long projectId){
         List<Folder> folders =  folderRepository.findAllFoldersByProjectId(projectId);
         if(folders.isEmpty()){
@@ -159,6 +342,22 @@ public class ProjectStorageService {
 
 
 
+    /**
+     * Folder path -> direct files (path, summary, content hash) for the whole project, built from
+     * one folder query and one streamed file query. Folders without files map to an empty list.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, List<FolderFileProjection>> getFolderFileIndex(Project project) {
+        Map<String, List<FolderFileProjection>> index = new LinkedHashMap<>();
+        for (Folder folder : folderRepository.findByProject(project)) {
+            index.put(folder.getPath(), new ArrayList<>());
+        }
+        try (Stream<FolderFileProjection> rows = codeFileRepository.streamFolderFilesByProject(project)) {
+            rows.forEach(row -> index.computeIfAbsent(row.getFolderPath(), k -> new ArrayList<>()).add(row));
+        }
+        return index;
+    }
+
     @Transactional(readOnly = true)
     public List<CodeFile> listFiles(Project project) {
         return codeFileRepository.findAllByProjectWithTakingAndCallingFetched(project);
@@ -202,6 +401,46 @@ public class ProjectStorageService {
         return file;
     }
 
+    private Folder resolveFolder(Project project, String path) {
+        Long cachedId = folderIdCache.get(project.getId(), path);
+        if (cachedId != null) {
+            // Reference proxy: no SELECT unless a non-id property is read
+            return folderRepository.getReferenceById(cachedId);
+        }
+        Folder folder = folderRepository.findByProjectAndPath(project, path)
+                .orElseGet(() -> folderRepository.save(newFolder(project, path)));
+        cacheFolder(project, folder);
+        return folder;
+    }
+
+    // Only cache once the row is committed, so a rolled-back insert never leaves a dangling id
+    private void cacheFolder(Project project, Folder folder) {
+        Long projectId = project.getId();
+        String path = folder.getPath();
+        Long folderId = folder.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    folderIdCache.put(projectId, path, folderId);
+                }
+            });
+        } else {
+            folderIdCache.put(projectId, path, folderId);
+        }
+    }
+
+    private Folder newFolder(Project project, String path) {
+        Folder f = new Folder();
+        f.setProject(project);
+        f.setPath(path);
+        String name = path;
+        int slash = path.lastIndexOf('/');
+        if (slash >= 0) name = path.substring(slash + 1);
+        f.setName(name.isEmpty() ? "." : name);
+        return f;
+    }
+
     private String folderOf(String filePath) {
         String p = normalize(filePath);
         int i = p.lastIndexOf('/');
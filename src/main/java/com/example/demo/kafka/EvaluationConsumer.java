@@ -4,6 +4,7 @@ import com.example.demo.DbRepository.ProjectRepository;
 import com.example.demo.DbService.Impl.ProjectService;
 import com.example.demo.model.EvaluationRequest;
 import com.example.demo.service.RepositoryEvaluatorService;
+import com.example.demo.service.SubmissionScheduler;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -11,6 +12,7 @@ import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
 
@@ -26,29 +28,44 @@ public class EvaluationConsumer {
     private final KafkaTemplate<String, String> kafkaTemplate;
     @Autowired
     private ProjectService projectService;
+    private final SubmissionScheduler submissionScheduler;
 
 
 
 
-    public  EvaluationConsumer( RepositoryEvaluatorService evaluationService, KafkaTemplate<String, String> kafkaTemplate, ProjectService projectService){
+    public  EvaluationConsumer( RepositoryEvaluatorService evaluationService, KafkaTemplate<String, String> kafkaTemplate, ProjectService projectService,
+                                SubmissionScheduler submissionScheduler){
         this.evaluationService= evaluationService;
         this.kafkaTemplate=kafkaTemplate ;
         this.objectMapper= new ObjectMapper();
         this.projectService = projectService;
+        this.submissionScheduler = submissionScheduler;
 
 
     }
 
-    @KafkaListener(topics = "evaluation-requests", groupId = "evaluation-consumer-group")
-    public void consume(String reqMessage){
+    // Hand the request to the worker pool; the offset is acknowledged once the evaluation (or retry hand-off) is done
+    @KafkaListener(id = SubmissionScheduler.LISTENER_ID, topics = "evaluation-requests", groupId = "evaluation-consumer-group",
+            containerFactory = "evaluationListenerContainerFactory")
+    public void consume(String reqMessage, Acknowledgment ack){
+        submissionScheduler.submit(submissionName(reqMessage), () -> process(reqMessage), ack::acknowledge);
+    }
+
+    void process(String reqMessage){
         try{
             EvaluationRequest evaluationRequest= objectMapper.readValue(reqMessage, EvaluationRequest.class);
             logger.info("Received JSON message from Kafka: {}", evaluationRequest);
-            projectService.create(evaluationRequest.getTitle(), evaluationRequest.getSubmissionId());
+            projectService.create(evaluationRequest.getTitle(), evaluationRequest.getSubmissionId(),
+                    evaluationRequest.getRepoUrl(), evaluationRequest.getParentSubmissionId());
             evaluationService.evaluateRepositoryFromUrl(evaluationRequest.getRepoUrl(), evaluationRequest.getSubmissionId(), evaluationRequest.getDescription());
 
 
         } catch (Exception e) {
+            if (submissionScheduler.isAborting()) {
+                // Interrupted by shutdown: the record is not acknowledged and comes back after restart
+                logger.warn("Request interrupted by shutdown, not sent to the retry pipeline: {}", e.getMessage());
+                return;
+            }
             System.err.println("Req is not process send to retry pipeline : "+e.getMessage());
 
             try{
@@ -66,5 +83,12 @@ public class EvaluationConsumer {
         }
     }
 
+    private String submissionName(String reqMessage) {
+        try {
+            return String.valueOf(objectMapper.readValue(reqMessage, EvaluationRequest.class).getSubmissionId());
+        } catch (JsonProcessingException e) {
+            return "<unparseable>";
+        }
+    }
 
 }
@@ -1,6 +1,7 @@
 package com.example.demo.kafka;
 
 import com.example.demo.model.EvaluationResult;
+import com.example.demo.model.FileFeedbackEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -10,11 +11,16 @@ import org.springframework.stereotype.Component;
 public class FeedbackProducer {
     private static final Logger logger = LoggerFactory.getLogger(FeedbackProducer.class);
     private static final String TOPIC = "EvaluationFeedback";
+    // Per-file results streamed while the evaluation is still running
+    private static final String PARTIAL_TOPIC = "EvaluationFeedbackPartial";
 
     private final KafkaTemplate<String, EvaluationResult> kafkaTemplate;
+    private final KafkaTemplate<String, FileFeedbackEvent> partialTemplate;
 
-    public FeedbackProducer(KafkaTemplate<String, EvaluationResult> kafkaTemplate) {
+    public FeedbackProducer(KafkaTemplate<String, EvaluationResult> kafkaTemplate,
+                            KafkaTemplate<String, FileFeedbackEvent> partialTemplate) {
         this.kafkaTemplate = kafkaTemplate;
+        this.partialTemplate = partialTemplate;
     }
 
     public boolean produceFeedback(EvaluationResult evaluationResult) {
@@ -30,4 +36,25 @@ public class FeedbackProducer {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Fire-and-forget send of a streaming event; a failed send is logged and never fails the evaluation.
+     */
+    public boolean produceFileFeedback(FileFeedbackEvent event) {
+        try {
+            String key = event.getSubmissionId().toString();
+            partialTemplate.send(PARTIAL_TOPIC, key, event)
+                    .whenComplete((res, ex) -> {
+                        if (ex != null) {
+                            logger.warn("Failed to stream {} feedback for submission {}: {}",
+                                    event.getType(), event.getSubmissionId(), ex.getMessage());
+                        }
+                    });
+            logger.debug("Streamed {} feedback {} for submission {}", event.getType(), event.getFilePath(), event.getSubmissionId());
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to stream evaluation feedback to Kafka: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.kafka;
+
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+@Configuration
+public class KafkaListenerConfig {
+
+    /**
+     * Container factory for evaluation requests: same settings as the default factory, but offsets
+     * are acknowledged manually once the submission has finished. Async acks let submissions that
+     * finish out of order be acknowledged immediately; the container commits an offset only once
+     * every earlier record of the partition has been acknowledged too.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> evaluationListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+}
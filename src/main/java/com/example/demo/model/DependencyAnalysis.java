@@ -0,0 +1,75 @@
+package com.example.demo.model;
+
+import java.util.*;
+
+/**
+ * Result of one DependencyCheckAnalyzer run: per-file taking (resolved imports) and calling
+ * (exported symbols) plus the dependency graph built from them. Immutable and owned by the
+ * caller, so concurrent analyses never share state.
+ */
+public final class DependencyAnalysis {
+
+    private final Map<String, List<String>> takingByPath;
+    private final Map<String, List<String>> callingByPath;
+    private final DependencyGraph graph;
+
+    public DependencyAnalysis(Map<String, List<String>> takingByPath, Map<String, List<String>> callingByPath,
+                              DependencyGraph graph) {
+        this.takingByPath = Collections.unmodifiableMap(takingByPath);
+        this.callingByPath = Collections.unmodifiableMap(callingByPath);
+        this.graph = graph;
+    }
+
+    public static DependencyAnalysis empty() {
+        return new DependencyAnalysis(Map.of(), Map.of(), DependencyGraph.empty());
+    }
+
+    public DependencyGraph getGraph() {
+        return graph;
+    }
+
+    /** Analyzed source files (repo-relative) -> resolved imports, in file order. */
+    public Map<String, List<String>> getTakingByPath() {
+        return takingByPath;
+    }
+
+    /** Analyzed source files (repo-relative) -> exported/public symbols. */
+    public Map<String, List<String>> getCallingByPath() {
+        return callingByPath;
+    }
+
+    public int getFileCount() {
+        return takingByPath.size();
+    }
+
+    /** Every import edge as DependencyInfo (built on demand). */
+    public List<DependencyInfo> getDependencies() {
+        List<DependencyInfo> deps = new ArrayList<>(graph.edgeCount());
+        for (Map.Entry<String, List<String>> e : takingByPath.entrySet()) {
+            for (String target : e.getValue()) {
+                deps.add(new DependencyInfo(e.getKey(), target, "import", true));
+            }
+        }
+        return deps;
+    }
+
+    public List<DependencyInfo> getDependenciesForFile(String filePath) {
+        List<DependencyInfo> deps = new ArrayList<>();
+        for (String target : graph.targetsOf(filePath)) {
+            deps.add(new DependencyInfo(filePath, target, "import", true));
+        }
+        return deps;
+    }
+
+    public List<DependencyInfo> getDependentsForFile(String filePath) {
+        List<DependencyInfo> deps = new ArrayList<>();
+        for (String source : graph.sourcesOf(filePath)) {
+            deps.add(new DependencyInfo(source, filePath, "import", true));
+        }
+        return deps;
+    }
+
+    public ToolResults toToolResults() {
+        return new ToolResults(getDependencies());
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.demo.model;
+
+import java.util.*;
+
+/**
+ * Immutable file dependency graph for one analysis.
+ *
+ * Paths are interned once to int ids (in insertion order); edges "source imports target" are
+ * stored as CSR (compressed sparse row) arrays in both directions, so the k-th import or importer
+ * of a file is an O(1) array read and neighbor sets are views over those arrays, not copies.
+ * Strongly connected components (import cycles) are computed once at build time.
+ */
+public final class DependencyGraph {
+
+    private static final DependencyGraph EMPTY = new Builder().build();
+
+    private final String[] paths;
+    private final Map<String, Integer> ids;
+
+    // Targets of node i are outTargets[outOffsets[i] .. outOffsets[i + 1])
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    // Sources of node i are inSources[inOffsets[i] .. inOffsets[i + 1])
+    private final int[] inOffsets;
+    private final int[] inSources;
+
+    private final int[] componentOf;
+    private final int[] componentSize;
+    private final boolean[] selfLoop;
+
+    private DependencyGraph(String[] paths, Map<String, Integer> ids, int[] outOffsets, int[] outTargets,
+                            int[] inOffsets, int[] inSources) {
+        this.paths = paths;
+        this.ids = ids;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+
+        this.selfLoop = new boolean[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            for (int e = outOffsets[i]; e < outOffsets[i + 1]; e++) {
+                if (outTargets[e] == i) selfLoop[i] = true;
+            }
+        }
+        this.componentOf = stronglyConnectedComponents();
+        int components = 0;
+        for (int c : componentOf) components = Math.max(components, c + 1);
+        this.componentSize = new int[components];
+        for (int c : componentOf) componentSize[c]++;
+    }
+
+    public static DependencyGraph empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // -------- Ids and adjacency --------
+
+    public int size() {
+        return paths.length;
+    }
+
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /** Id of a repo-relative path, -1 when unknown. */
+    public int idOf(String path) {
+        Integer id = ids.get(path);
+        return id == null ? -1 : id;
+    }
+
+    public String pathOf(int id) {
+        return paths[id];
+    }
+
+    /** Fan-out: number of files this file imports. */
+    public int outDegree(int id) {
+        return outOffsets[id + 1] - outOffsets[id];
+    }
+
+    /** Fan-in: number of files importing this file. */
+    public int inDegree(int id) {
+        return inOffsets[id + 1] - inOffsets[id];
+    }
+
+    /** k-th file imported by id (0 <= k < outDegree). */
+    public int target(int id, int k) {
+        return outTargets[outOffsets[id] + k];
+    }
+
+    /** k-th file importing id (0 <= k < inDegree). */
+    public int source(int id, int k) {
+        return inSources[inOffsets[id] + k];
+    }
+
+    /** Files imported by path, in import order (read-only view). */
+    public Set<String> targetsOf(String path) {
+        int id = idOf(path);
+        return id < 0 ? Collections.emptySet() : new PathSlice(outTargets, outOffsets[id], outOffsets[id + 1]);
+    }
+
+    /** Files importing path (read-only view). */
+    public Set<String> sourcesOf(String path) {
+        int id = idOf(path);
+        return id < 0 ? Collections.emptySet() : new PathSlice(inSources, inOffsets[id], inOffsets[id + 1]);
+    }
+
+    // -------- Reachability --------
+
+    /** Everything id depends on, directly or transitively (id itself only when it is on a cycle). */
+    public BitSet reachableFrom(int id) {
+        BitSet start = new BitSet(paths.length);
+        start.set(id);
+        return reach(start, outOffsets, outTargets);
+    }
+
+    /** Everything that depends on id, directly or transitively. */
+    public BitSet reachableTo(int id) {
+        BitSet start = new BitSet(paths.length);
+        start.set(id);
+        return reach(start, inOffsets, inSources);
+    }
+
+    /** Everything that depends on any of the given ids, directly or transitively. */
+    public BitSet reachableTo(BitSet ids) {
+        return reach(ids, inOffsets, inSources);
+    }
+
+    private BitSet reach(BitSet start, int[] offsets, int[] adjacency) {
+        BitSet seen = new BitSet(paths.length);
+        // Start nodes plus each node at most once when first reached
+        int[] stack = new int[2 * paths.length + 1];
+        int top = 0;
+        for (int i = start.nextSetBit(0); i >= 0; i = start.nextSetBit(i + 1)) {
+            stack[top++] = i;
+        }
+        while (top > 0) {
+            int v = stack[--top];
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = adjacency[e];
+                if (!seen.get(w)) {
+                    seen.set(w);
+                    stack[top++] = w;
+                }
+            }
+        }
+        return seen;
+    }
+
+    // -------- Cycles --------
+
+    public int componentOf(int id) {
+        return componentOf[id];
+    }
+
+    public boolean isInCycle(int id) {
+        return componentSize[componentOf[id]] > 1 || selfLoop[id];
+    }
+
+    /** Import cycles (strongly connected components with more than one file, or a self-import), largest first. */
+    public List<List<String>> getCycles() {
+        Map<Integer, List<String>> byComponent = new LinkedHashMap<>();
+        for (int i = 0; i < paths.length; i++) {
+            if (isInCycle(i)) byComponent.computeIfAbsent(componentOf[i], c -> new ArrayList<>()).add(paths[i]);
+        }
+        List<List<String>> cycles = new ArrayList<>(byComponent.values());
+        cycles.sort(Comparator.comparingInt((List<String> c) -> c.size()).reversed());
+        return cycles;
+    }
+
+    /**
+     * files, edges, cycles, filesInCycles, largestCycle, maxFanIn(+File), maxFanOut(+File).
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("files", paths.length);
+        m.put("edges", outTargets.length);
+        List<List<String>> cycles = getCycles();
+        m.put("cycles", cycles.size());
+        m.put("filesInCycles", cycles.stream().mapToInt(List::size).sum());
+        m.put("largestCycle", cycles.isEmpty() ? 0 : cycles.get(0).size());
+        int maxIn = -1, maxOut = -1;
+        for (int i = 0; i < paths.length; i++) {
+            if (maxIn < 0 || inDegree(i) > inDegree(maxIn)) maxIn = i;
+            if (maxOut < 0 || outDegree(i) > outDegree(maxOut)) maxOut = i;
+        }
+        m.put("maxFanIn", maxIn < 0 ? 0 : inDegree(maxIn));
+        m.put("maxFanInFile", maxIn < 0 ? null : paths[maxIn]);
+        m.put("maxFanOut", maxOut < 0 ? 0 : outDegree(maxOut));
+        m.put("maxFanOutFile", maxOut < 0 ? null : paths[maxOut]);
+        return m;
+    }
+
+    // Iterative Tarjan; returns component index per node
+    private int[] stronglyConnectedComponents() {
+        int n = paths.length;
+        int[] comp = new int[n];
+        int[] index = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(index, -1);
+        int[] stack = new int[n];
+        int sp = 0;
+        int[] callNode = new int[n];
+        int[] callEdge = new int[n];
+        int next = 0;
+        int components = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) continue;
+            int depth = 0;
+            callNode[0] = root;
+            callEdge[0] = outOffsets[root];
+            index[root] = low[root] = next++;
+            stack[sp++] = root;
+            onStack[root] = true;
+
+            while (depth >= 0) {
+                int v = callNode[depth];
+                if (callEdge[depth] < outOffsets[v + 1]) {
+                    int w = outTargets[callEdge[depth]++];
+                    if (index[w] < 0) {
+                        index[w] = low[w] = next++;
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        depth++;
+                        callNode[depth] = w;
+                        callEdge[depth] = outOffsets[w];
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--sp];
+                        onStack[w] = false;
+                        comp[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callNode[depth];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+        return comp;
+    }
+
+    private final class PathSlice extends AbstractSet<String> {
+        private final int[] nodes;
+        private final int from;
+        private final int to;
+
+        PathSlice(int[] nodes, int from, int to) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+                int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < to;
+                }
+
+                @Override
+                public String next() {
+                    if (i >= to) throw new NoSuchElementException();
+                    return paths[nodes[i++]];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer id = o instanceof String s ? ids.get(s) : null;
+            if (id == null) return false;
+            for (int i = from; i < to; i++) {
+                if (nodes[i] == id) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Collects paths and edges; duplicate edges are dropped, first-seen order is kept.
+     * Not thread-safe; build() may be called once.
+     */
+    public static final class Builder {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> paths = new ArrayList<>();
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private int edges;
+
+        public int addFile(String path) {
+            Integer id = ids.get(path);
+            if (id != null) return id;
+            ids.put(path, paths.size());
+            paths.add(path);
+            return paths.size() - 1;
+        }
+
+        public Builder addEdge(String source, String target) {
+            int s = addFile(source);
+            int t = addFile(target);
+            if (edges == sources.length) {
+                sources = Arrays.copyOf(sources, edges * 2);
+                targets = Arrays.copyOf(targets, edges * 2);
+            }
+            sources[edges] = s;
+            targets[edges] = t;
+            edges++;
+            return this;
+        }
+
+        public DependencyGraph build() {
+            int n = paths.size();
+
+            // Forward CSR: counting sort by source (stable), dropping duplicate edges
+            int[] outOffsets = new int[n + 1];
+            for (int e = 0; e < edges; e++) outOffsets[sources[e] + 1]++;
+            for (int i = 0; i < n; i++) outOffsets[i + 1] += outOffsets[i];
+            int[] sorted = new int[edges];
+            int[] fill = Arrays.copyOf(outOffsets, n);
+            for (int e = 0; e < edges; e++) sorted[fill[sources[e]]++] = targets[e];
+
+            int[] stamp = new int[n];
+            Arrays.fill(stamp, -1);
+            int[] dedupOffsets = new int[n + 1];
+            int[] outTargets = new int[edges];
+            int m = 0;
+            for (int v = 0; v < n; v++) {
+                dedupOffsets[v] = m;
+                for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                    int w = sorted[e];
+                    if (stamp[w] == v) continue;
+                    stamp[w] = v;
+                    outTargets[m++] = w;
+                }
+            }
+            dedupOffsets[n] = m;
+            outTargets = Arrays.copyOf(outTargets, m);
+
+            // Reverse CSR from the deduplicated forward arrays
+            int[] inOffsets = new int[n + 1];
+            for (int w : outTargets) inOffsets[w + 1]++;
+            for (int i = 0; i < n; i++) inOffsets[i + 1] += inOffsets[i];
+            int[] inSources = new int[m];
+            int[] inFill = Arrays.copyOf(inOffsets, n);
+            for (int v = 0; v < n; v++) {
+                for (int e = dedupOffsets[v]; e < dedupOffsets[v + 1]; e++) {
+                    inSources[inFill[outTargets[e]]++] = v;
+                }
+            }
+
+            return new DependencyGraph(paths.toArray(new String[0]), Map.copyOf(ids),
+                    dedupOffsets, outTargets, inOffsets, inSources);
+        }
+    }
+}
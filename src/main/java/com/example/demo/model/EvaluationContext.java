@@ -16,6 +16,7 @@ import java.util.*;
  * - calling: exported/public symbols
  * - dependents: reverse index built from taking
  * - language: detected/stored language for the file
+ * taking/dependents live in a DependencyGraph; the sets handed out are views over it.
  *
  * Backward compatibility:
  * - getFileContext includes "dependencies" (alias to taking) and "dependents".
@@ -25,8 +26,7 @@ import java.util.*;
 public class EvaluationContext {
 
     // Core maps (repo-relative normalized paths as keys)
-    private final Map<String, Set<String>> takingByFile = new HashMap<>();
-    private final Map<String, Set<String>> dependentsByFile = new HashMap<>();
+    private DependencyGraph graph = DependencyGraph.empty();
     private final Map<String, Set<String>> callingByFile = new HashMap<>();
     private final Map<String, String> languageByFile = new HashMap<>();
 
@@ -48,16 +48,32 @@ public class EvaluationContext {
         return ctx;
     }
 
+    /**
+     * Same as fromRepoPath, but reuses the graph of the dependency analysis that just persisted
+     * the taking of these files instead of rebuilding it from the rows.
+     */
+    public static EvaluationContext fromRepoPath(Path repoRoot, Project project, ProjectStorageService storage,
+                                                 DependencyGraph graph) {
+        Objects.requireNonNull(project, "project must not be null");
+        Objects.requireNonNull(storage, "storage must not be null");
+        return fromCodeFiles(storage.listFiles(project), graph);
+    }
+
     /**
      * Build context from CodeFile rows for a project.
      */
     public static EvaluationContext fromCodeFiles(Collection<CodeFile> files) {
+        return fromCodeFiles(files, null);
+    }
+
+    private static EvaluationContext fromCodeFiles(Collection<CodeFile> files, DependencyGraph knownGraph) {
         EvaluationContext ctx = new EvaluationContext();
 
 
         if (files != null) {
             // Track paths without duplicates, preserving order
             LinkedHashSet<String> seenPaths = new LinkedHashSet<>();
+            DependencyGraph.Builder graph = DependencyGraph.builder();
 
             // 1) Index primary maps
             for (CodeFile cf : files) {
@@ -67,14 +83,13 @@ public class EvaluationContext {
                 seenPaths.add(path);
 
                 // taking (imports)
-                Collection<String> takingList = (cf.getTaking() != null) ? cf.getTaking() : Collections.emptySet();
-                Set<String> taking = new LinkedHashSet<>();
-                for (String t : takingList) {
-                    String nt = normalizePath(t);
-                    if (!nt.isEmpty()) taking.add(nt);
-                }
-                if (!taking.isEmpty()) {
-                    ctx.takingByFile.put(path, taking);
+                if (knownGraph == null) {
+                    graph.addFile(path);
+                    Collection<String> takingList = (cf.getTaking() != null) ? cf.getTaking() : Collections.emptySet();
+                    for (String t : takingList) {
+                        String nt = normalizePath(t);
+                        if (!nt.isEmpty()) graph.addEdge(path, nt);
+                    }
                 }
 
                 // calling (exports)
@@ -96,13 +111,8 @@ public class EvaluationContext {
             // finalize all files list in stable order
             ctx.allFiles.addAll(seenPaths);
 
-            // 2) Build dependents (reverse index of taking)
-            for (Map.Entry<String, Set<String>> e : ctx.takingByFile.entrySet()) {
-                String src = e.getKey();
-                for (String tgt : e.getValue()) {
-                    ctx.dependentsByFile.computeIfAbsent(tgt, k -> new LinkedHashSet<>()).add(src);
-                }
-            }
+            // 2) Dependents are the reverse adjacency of the graph
+            ctx.graph = knownGraph != null ? knownGraph : graph.build();
         }
 
 
@@ -141,11 +151,15 @@ public class EvaluationContext {
     }
 
     public Set<String> getTaking(String filePath) {
-        return takingByFile.getOrDefault(normalizePath(filePath), Collections.emptySet());
+        return graph.targetsOf(normalizePath(filePath));
     }
 
     public Set<String> getDependents(String filePath) {
-        return dependentsByFile.getOrDefault(normalizePath(filePath), Collections.emptySet());
+        return graph.sourcesOf(normalizePath(filePath));
+    }
+
+    public DependencyGraph getGraph() {
+        return graph;
     }
 
     public Set<String> getCalling(String filePath) {
@@ -186,9 +200,8 @@ public class EvaluationContext {
 
     @Override
     public String toString() {
-        int edges = takingByFile.values().stream().mapToInt(Set::size).sum();
         return "EvaluationContext{files=" + allFiles.size()
-                + ", edges=" + edges
+                + ", edges=" + graph.edgeCount()
                 + ", withLanguages=" + languageByFile.size()
                 + "}";
     }
@@ -198,10 +211,9 @@ public class EvaluationContext {
      */
     public String toPrettyString(int maxRows) {
         StringBuilder sb = new StringBuilder();
-        int edges = takingByFile.values().stream().mapToInt(Set::size).sum();
         sb.append("EvaluationContext\n");
         sb.append("- files: ").append(allFiles.size()).append('\n');
-        sb.append("- edges: ").append(edges).append('\n');
+        sb.append("- edges: ").append(graph.edgeCount()).append('\n');
         sb.append("- languages: ").append(languageByFile.size()).append('\n');
 
         sb.append("\nFiles (first ").append(Math.min(maxRows, allFiles.size())).append("):\n");
@@ -210,14 +222,14 @@ public class EvaluationContext {
         }
 
         sb.append("\nTaking (first ").append(maxRows).append(" rows):\n");
-        appendMapSample(sb, takingByFile, maxRows);
+        appendMapSample(sb, adjacencySample(true, maxRows), maxRows);
 
         sb.append("\nCalling (first ").append(maxRows).append(" rows):\n");
         appendMapSample(sb, callingByFile, maxRows);
 
 
         sb.append("\nDependents (first ").append(maxRows).append(" rows):\n");
-        appendMapSample(sb, dependentsByFile, maxRows);
+        appendMapSample(sb, adjacencySample(false, maxRows), maxRows);
 
         return sb.toString();
     }
@@ -229,12 +241,23 @@ public class EvaluationContext {
         Map<String, Object> m = new LinkedHashMap<>();
         m.put("files", new ArrayList<>(allFiles));
         m.put("languageByFile", new LinkedHashMap<>(languageByFile));
-        m.put("takingByFile", copyMapOfSets(takingByFile));
+        m.put("takingByFile", copyMapOfSets(adjacencySample(true, Integer.MAX_VALUE)));
         m.put("callingByFile", copyMapOfSets(callingByFile));
-        m.put("dependentsByFile", copyMapOfSets(dependentsByFile));
+        m.put("dependentsByFile", copyMapOfSets(adjacencySample(false, Integer.MAX_VALUE)));
         return m;
     }
 
+    // Files with at least one import (or importer), up to maxRows
+    private Map<String, Set<String>> adjacencySample(boolean taking, int maxRows) {
+        Map<String, Set<String>> out = new LinkedHashMap<>();
+        for (int id = 0; id < graph.size() && out.size() < maxRows; id++) {
+            String path = graph.pathOf(id);
+            Set<String> adjacent = taking ? graph.targetsOf(path) : graph.sourcesOf(path);
+            if (!adjacent.isEmpty()) out.put(path, adjacent);
+        }
+        return out;
+    }
+
     private static Map<String, List<String>> copyMapOfSets(Map<String, Set<String>> src) {
         Map<String, List<String>> out = new LinkedHashMap<>();
         for (Map.Entry<String, Set<String>> e : src.entrySet()) {
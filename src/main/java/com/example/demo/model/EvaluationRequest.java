@@ -13,6 +13,8 @@ public class EvaluationRequest {
     private Long submissionId;
     private  String Title;
     private  String Description ;
+    // Optional: earlier submission of the same repo to evaluate incrementally against
+    private Long parentSubmissionId;
 
 
 
@@ -0,0 +1,50 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental feedback published while a submission is being evaluated.
+ *
+ * FILE events carry one file's grouped issues (errors / improvements / thingsDoneRight) and are
+ * sent in completion order; a single COMPLETED event closes the stream with totals and the
+ * general comments. Keyed by submissionId, so events of one submission stay ordered.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileFeedbackEvent {
+
+    public enum Type {
+        FILE,
+        COMPLETED
+    }
+
+    private Type type;
+    private Long submissionId;
+
+    // 1-based position in completion order (FILE) or number of files processed (COMPLETED)
+    private int sequence;
+    private int totalFiles;
+
+    // FILE only
+    private String filePath;
+    private Map<String, List<IssueItem>> issues;
+
+    // COMPLETED only
+    private int failedFiles;
+    private List<String> generalComments;
+
+    public static FileFeedbackEvent file(Long submissionId, int sequence, int totalFiles,
+                                         String filePath, Map<String, List<IssueItem>> issues) {
+        return new FileFeedbackEvent(Type.FILE, submissionId, sequence, totalFiles, filePath, issues, 0, null);
+    }
+
+    public static FileFeedbackEvent completed(Long submissionId, int totalFiles, int failedFiles, List<String> generalComments) {
+        return new FileFeedbackEvent(Type.COMPLETED, submissionId, totalFiles, totalFiles, null, null, failedFiles, generalComments);
+    }
+}
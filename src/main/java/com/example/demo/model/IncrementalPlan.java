@@ -0,0 +1,70 @@
+package com.example.demo.model;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Which files of a resubmission need a fresh LLM pass and which can reuse the
+ * evaluation stored for an earlier submission of the same repo.
+ *
+ * A plan without a prior submission (full()) evaluates everything.
+ */
+@Getter
+public class IncrementalPlan {
+
+    private final Long priorSubmissionId;
+
+    // path -> issues stored for the prior submission (content and context unchanged)
+    private final Map<String, Map<String, List<IssueItem>>> reusedIssues;
+
+    // path -> summary stored for the prior submission (only for reused files)
+    private final Map<String, String> reusedSummaries;
+
+    // Files whose content is new or changed
+    private final Set<String> changedFiles;
+
+    // Files with unchanged content whose imports or importers changed
+    private final Set<String> contextChangedFiles;
+
+    public IncrementalPlan(Long priorSubmissionId,
+                           Map<String, Map<String, List<IssueItem>>> reusedIssues,
+                           Map<String, String> reusedSummaries,
+                           Set<String> changedFiles,
+                           Set<String> contextChangedFiles) {
+        this.priorSubmissionId = priorSubmissionId;
+        this.reusedIssues = Collections.unmodifiableMap(reusedIssues);
+        this.reusedSummaries = Collections.unmodifiableMap(reusedSummaries);
+        this.changedFiles = Collections.unmodifiableSet(changedFiles);
+        this.contextChangedFiles = Collections.unmodifiableSet(contextChangedFiles);
+    }
+
+    public static IncrementalPlan full() {
+        return new IncrementalPlan(null, Map.of(), Map.of(), Set.of(), Set.of());
+    }
+
+    public boolean isIncremental() {
+        return priorSubmissionId != null;
+    }
+
+    public boolean isReusable(String path) {
+        return reusedIssues.containsKey(path);
+    }
+
+    /**
+     * True when the file must be re-reviewed even though its content hash did not change,
+     * so a content-keyed cached evaluation must not be used.
+     */
+    public boolean isContextChanged(String path) {
+        return contextChangedFiles.contains(path);
+    }
+
+    public Map<String, Object> toStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("priorSubmissionId", priorSubmissionId);
+        m.put("reused", reusedIssues.size());
+        m.put("changed", changedFiles.size());
+        m.put("contextChanged", contextChangedFiles.size());
+        return m;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+import com.example.demo.DbModels.CodeFile;
+import com.example.demo.DbModels.Project;
+import com.example.demo.DbService.Impl.ProjectService;
+import com.example.demo.DbService.Impl.ProjectStorageService;
+import com.example.demo.model.EvaluationContext;
+import com.example.demo.model.IncrementalPlan;
+import com.example.demo.model.IssueItem;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Diffs a resubmission against the previous submission of the same repo.
+ *
+ * A file is re-evaluated when its contentHash changed (or it is new), when a file it imports
+ * changed, or when its own imports/importers differ from last time; everything else reuses the
+ * issues and summary stored on the prior submission's CodeFile rows.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IncrementalEvaluationPlanner {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final TypeReference<Map<String, List<IssueItem>>> ISSUES_TYPE = new TypeReference<>() {};
+
+    private final ProjectService projectService;
+    private final ProjectStorageService projectStorageService;
+
+    /**
+     * Build the plan for a project whose files and dependencies are already persisted.
+     */
+    public IncrementalPlan plan(Project project, EvaluationContext context) {
+        Optional<Project> priorOpt = projectService.findPreviousSubmission(project);
+        if (priorOpt.isEmpty()) {
+            return IncrementalPlan.full();
+        }
+        Project prior = priorOpt.get();
+
+        Map<String, CodeFile> before = index(projectStorageService.listFiles(prior));
+        Map<String, CodeFile> after = index(projectStorageService.listFiles(project));
+        if (before.isEmpty()) {
+            log.info("Prior submission {} has no stored files; evaluating {} in full", prior.getSubmissionId(), project.getSubmissionId());
+            return IncrementalPlan.full();
+        }
+        EvaluationContext priorContext = EvaluationContext.fromCodeFiles(before.values());
+
+        // 1) New or modified content (or never successfully evaluated last time)
+        Set<String> changed = new LinkedHashSet<>();
+        for (Map.Entry<String, CodeFile> e : after.entrySet()) {
+            CodeFile old = before.get(e.getKey());
+            String hash = e.getValue().getContentHash();
+            if (old == null || hash == null || !hash.equals(old.getContentHash()) || old.getIssuesJson() == null) {
+                changed.add(e.getKey());
+            }
+        }
+
+        // 2) Unchanged content but different dependency context
+        Set<String> contextChanged = new LinkedHashSet<>();
+        for (String path : changed) {
+            for (String dependent : context.getDependents(path)) {
+                if (!changed.contains(dependent)) contextChanged.add(dependent);
+            }
+        }
+        for (String path : after.keySet()) {
+            if (changed.contains(path)) continue;
+            if (!context.getTaking(path).equals(priorContext.getTaking(path))
+                    || !context.getDependents(path).equals(priorContext.getDependents(path))) {
+                contextChanged.add(path);
+            }
+        }
+
+        // 3) Everything else reuses the stored issues
+        Map<String, Map<String, List<IssueItem>>> reused = new LinkedHashMap<>();
+        Map<String, String> reusedSummaries = new HashMap<>();
+        for (Map.Entry<String, CodeFile> e : after.entrySet()) {
+            String path = e.getKey();
+            if (changed.contains(path) || contextChanged.contains(path)) continue;
+            Map<String, List<IssueItem>> issues = parseIssues(before.get(path).getIssuesJson());
+            if (issues == null) {
+                changed.add(path);
+            } else {
+                reused.put(path, issues);
+                String summary = before.get(path).getContextJson();
+                if (summary != null) reusedSummaries.put(path, summary);
+            }
+        }
+
+        IncrementalPlan plan = new IncrementalPlan(prior.getSubmissionId(), reused, reusedSummaries, changed, contextChanged);
+        log.info("Incremental plan for submission {} against {}: {}", project.getSubmissionId(), prior.getSubmissionId(), plan.toStats());
+        return plan;
+    }
+
+    private static Map<String, CodeFile> index(List<CodeFile> files) {
+        Map<String, CodeFile> byPath = new LinkedHashMap<>();
+        for (CodeFile f : files) {
+            if (f.getPath() != null) byPath.put(f.getPath(), f);
+        }
+        return byPath;
+    }
+
+    private static Map<String, List<IssueItem>> parseIssues(String json) {
+        if (json == null || json.isBlank()) return null;
+        try {
+            return mapper.readValue(json, ISSUES_TYPE);
+        } catch (Exception e) {
+            log.warn("Stored issues are not readable, re-evaluating: {}", e.getMessage());
+            return null;
+        }
+    }
+}
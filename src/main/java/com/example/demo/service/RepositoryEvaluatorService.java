@@ -1,11 +1,15 @@
 package com.example.demo.service;
 
 import com.example.demo.DbModels.Project;
+import com.example.demo.DbService.Impl.EvaluationCacheService;
 import com.example.demo.DbService.Impl.ProjectService;
 import com.example.demo.DbService.Impl.ProjectStorageService;
 import com.example.demo.kafka.FeedbackProducer;
+import com.example.demo.model.DependencyAnalysis;
 import com.example.demo.model.EvaluationContext;
 import com.example.demo.model.EvaluationResult;
+import com.example.demo.model.FileFeedbackEvent;
+import com.example.demo.model.IncrementalPlan;
 import com.example.demo.model.IssueItem;
 import com.example.demo.utils.*;
 import lombok.extern.slf4j.Slf4j;
@@ -20,7 +24,9 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.Future;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -46,19 +52,42 @@ public class RepositoryEvaluatorService {
     @Autowired
     private   SummaryService summaryService;
 
+    @Autowired
+    private EvaluationCacheService evaluationCacheService;
+
+    @Autowired
+    private IncrementalEvaluationPlanner incrementalEvaluationPlanner;
+
+    @Autowired
+    private LlmTaskExecutor llmTaskExecutor;
+
+    @Autowired
+    private SummaryCache summaryCache;
+
 
 
 
     @Value("${evaluation.timeout.seconds:600}")
     private int evaluationTimeoutSeconds;
 
-    @Value("${groq.tpm.limit:6000}")
-    private long groqTpmLimit;
+    @Value("${evaluation.persist.batch-size:200}")
+    private int persistBatchSize;
 
+    @Value("${repo.scan.parallel:false}")
+    private boolean parallelScan;
+
+    @Value("${repo.scan.parallelism:4}")
+    private int scanParallelism;
+
+    @Value("${repo.scan.listener-queue:1024}")
+    private int scanListenerQueue;
+
+    @Value("${evaluation.incremental.enabled:true}")
+    private boolean incrementalEnabled;
+
+    @Value("${evaluation.streaming.enabled:true}")
+    private boolean streamingEnabled;
 
-    private final Object rlLock = new Object();
-    private double rlTokens;
-    private long rlLastRefillMs;
     private final ProjectStorageService projectStorageService;
 
 
@@ -127,6 +156,9 @@ public class RepositoryEvaluatorService {
      * Evaluate the code quality of a repository
      */
     public EvaluationResult evaluateRepository(Path repoPath, Long submissionId, String UserIntent) {
+        Project project = null;
+        SummaryPipeline summaryPipeline = null;
+        CompletableFuture<List<String>> overallAssessment = null;
         try {
 
             log.info("Starting evaluation of repository at {}", repoPath);
@@ -135,26 +167,54 @@ public class RepositoryEvaluatorService {
             if (newProject.isEmpty()) {
                 throw new IllegalStateException("Could not find project with submissionId: " + submissionId);
             }
-            Project project = newProject.get();
+            project = newProject.get();
 
-            // Ensure root exists before walk (safe if already present)
+            // Ensure root exists before walk (safe if already present) and warm the folder-id cache
             projectStorageService.getOrCreateRootFolder(project);
+            projectStorageService.preloadFolders(project);
 
             // Persist to DB during the walk and still get the in-memory tree for later steps
-            DbNodeListener dbListener = new DbNodeListener(project, projectStorageService);
-            RepositoryTree repoTree = RepositoryTreeBuilder.buildTree(repoPath, dbListener);
+            NodeListener dbListener = persistBatchSize > 1
+                    ? new BatchingNodeListener(project, projectStorageService, persistBatchSize)
+                    : new DbNodeListener(project, projectStorageService);
+            RepositoryTree repoTree = parallelScan
+                    ? RepositoryTreeBuilder.buildTreeParallel(repoPath, dbListener, scanParallelism, scanListenerQueue)
+                    : RepositoryTreeBuilder.buildTree(repoPath, dbListener);
+
+            // Analyze dependencies from the scanned content and persist taking/calling per file
+            DependencyAnalysis dependencies = dependencyCheckAnalyzer.analyze(project, repoPath, repoTree);
+
+            // Build evaluation context from DB, sharing the analysis graph
+            EvaluationContext context = EvaluationContext.fromRepoPath(repoPath, project, projectStorageService, dependencies.getGraph());
+            log.info("\n{}", context.toPrettyString(25));
+            ProgressLog.write("dependency.graph", context.getGraph().getStats());
 
-            // Analyze dependencies and persist taking/calling per file
-            dependencyCheckAnalyzer.analyze(project, repoPath);
 
-            // Build evaluation context from DB
-            EvaluationContext context = EvaluationContext.fromRepoPath(repoPath, project, projectStorageService);
-            log.info("\n{}", context.toPrettyString(25));
+            // Resubmission of a known repo: only re-review what changed (or whose dependencies changed)
+            IncrementalPlan plan = incrementalEnabled
+                    ? incrementalEvaluationPlanner.plan(project, context)
+                    : IncrementalPlan.full();
+            if (plan.isIncremental()) {
+                ProgressLog.write("evaluation.incremental", plan.toStats());
+            }
+
+            // Size decides the scheduling lane, so a small repo is not queued behind a large one
+            llmTaskExecutor.register(submissionId, plan.isIncremental()
+                    ? plan.getChangedFiles().size() + plan.getContextChangedFiles().size()
+                    : repoTree.getFileCount());
 
+            // Folder summaries start as soon as their files are evaluated (no barrier after evaluation)
+            summaryPipeline = summaryService.startPipeline(project);
 
             // Submit files for evaluation via EvaluationService (returns futures)
-            Map<String, Future<Map<String, List<IssueItem>>>> futureResults =
-                    evaluationService.submitFilesForEvaluation(repoTree, context, repoPath,submissionId);
+            Map<String, CompletableFuture<Map<String, List<IssueItem>>>> futureResults =
+                    evaluationService.submitFilesForEvaluation(repoTree, context, repoPath, submissionId, plan, summaryPipeline::onFileSummary);
+            summaryPipeline.expectOnly(futureResults);
+
+            // Overall assessment runs once the repo summary exists, while results are still being collected
+            overallAssessment = summaryPipeline.getRootSummary()
+                    .thenCompose(repoSummary -> llmTaskExecutor.submit(submissionId,
+                            () -> generateOverallAssessment(UserIntent, repoSummary)));
 
 
             // Aggregate results
@@ -162,11 +222,16 @@ public class RepositoryEvaluatorService {
             Map<String, List<IssueItem>> improvements = new HashMap<>();
             Map<String, List<IssueItem>> thingsDoneRight = new HashMap<>();
 
-            // Process the evaluation results (waits on futures and logs to process.log)
-            processEvaluationResults(futureResults, errors, improvements, thingsDoneRight);
+            // Process the evaluation results in completion order (streams each file when enabled)
+            int failedFiles = processEvaluationResults(submissionId, futureResults, errors, improvements, thingsDoneRight);
+
+            // Overall assessment (optional higher-level summary)
+            List<String> generalComments = awaitOverallAssessment(overallAssessment);
 
-            // Generate overall assessment (optional higher-level summary)
-            List<String> generalComments = generateOverallAssessment(submissionId, UserIntent , repoTree);
+            if (streamingEnabled) {
+                feedbackProducer.produceFileFeedback(
+                        FileFeedbackEvent.completed(submissionId, futureResults.size(), failedFiles, generalComments));
+            }
 
             // Final structured result
             return new EvaluationResult(submissionId, errors, improvements, thingsDoneRight, generalComments);
@@ -175,85 +240,146 @@ public class RepositoryEvaluatorService {
             log.error("Error evaluating repository", e);
 
             throw new RuntimeException("Failed to evaluate repository", e);
+        } finally {
+            // After a timeout or failure, stop summary and assessment work that is still pending
+            if (overallAssessment != null) overallAssessment.cancel(true);
+            if (summaryPipeline != null) summaryPipeline.cancel();
+            if (project != null) {
+                ProgressLog.write("storage.folderCache", projectStorageService.getFolderCacheStats());
+                ProgressLog.write("llm.rateLimiter", groqClient.getRateLimiterStats());
+                ProgressLog.write("llm.latency", groqClient.getLatencyStats());
+                ProgressLog.write("llm.circuitBreaker", groqClient.getCircuitBreakerStats());
+                ProgressLog.write("evaluation.cache", evaluationCacheService.getStats());
+                ProgressLog.write("summary.cache", summaryCache.getStats());
+                ProgressLog.write("llm.scheduler", Map.of("submission", llmTaskExecutor.unregister(submissionId),
+                        "executor", llmTaskExecutor.getStats()));
+                projectStorageService.evictFolderCache(project);
+            }
         }
     }
 
     /**
-     * Wait for futures, bucket issues, and log per-file results to process.log
+     * Wait for futures in completion order and bucket their issues.
+     * With streaming enabled each file is published as soon as its future completes, so one slow
+     * file does not hold back the others.
+     *
+     * @return number of files whose evaluation failed or timed out
      */
-    private void processEvaluationResults(
-            Map<String, Future<Map<String, List<IssueItem>>>> futureResults,
+    private int processEvaluationResults(
+            Long submissionId,
+            Map<String, CompletableFuture<Map<String, List<IssueItem>>>> futureResults,
             Map<String, List<IssueItem>> errors,
             Map<String, List<IssueItem>> improvements,
             Map<String, List<IssueItem>> thingsDoneRight) {
 
-        for (Map.Entry<String, Future<Map<String, List<IssueItem>>>> entry : futureResults.entrySet()) {
+        int total = futureResults.size();
+        BlockingQueue<String> completed = new LinkedBlockingQueue<>();
+        for (Map.Entry<String, CompletableFuture<Map<String, List<IssueItem>>>> entry : futureResults.entrySet()) {
             String filePath = entry.getKey();
-            Future<Map<String, List<IssueItem>>> future = entry.getValue();
+            entry.getValue().whenComplete((r, ex) -> completed.add(filePath));
+        }
 
+        Set<String> pending = new LinkedHashSet<>(futureResults.keySet());
+        int sequence = 0;
+        int failed = 0;
+        while (!pending.isEmpty()) {
+            String filePath;
             try {
-                Map<String, List<IssueItem>> groupedIssues = future.get(evaluationTimeoutSeconds, TimeUnit.SECONDS);
-
-                // Log summary for the file
-                int totalIssues = groupedIssues.values().stream()
-                        .mapToInt(List::size)
-                        .sum();
-
-                Map<String, Object> fileLog = new LinkedHashMap<>();
-                fileLog.put("file", filePath);
-                fileLog.put("issueCount", totalIssues);
-                fileLog.put("issues", groupedIssues); // grouped map now
-
-                // Add to global buckets
-                if (groupedIssues.containsKey("errors")) {
-                    for (IssueItem issue : groupedIssues.get("errors")) {
-                        addToMap(errors, issue.getFilePath(), issue);
-                    }
-                }
-                if (groupedIssues.containsKey("improvements")) {
-                    for (IssueItem issue : groupedIssues.get("improvements")) {
-
-                        addToMap(improvements, issue.getFilePath(), issue);
-                    }
-                }
-                if (groupedIssues.containsKey("thingsDoneRight")) {
-                    for (IssueItem issue : groupedIssues.get("thingsDoneRight")) {
-                        addToMap(thingsDoneRight, issue.getFilePath(), issue);
-                    }
+                // Timeout applies to the gap between completions, like the old per-future wait
+                filePath = completed.poll(evaluationTimeoutSeconds, TimeUnit.SECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                filePath = null;
+            }
+            if (filePath == null) {
+                // Nothing finished in time: report the stragglers as failed
+                for (String stuck : pending) {
+                    futureResults.get(stuck).cancel(true);
+                    Map<String, List<IssueItem>> failure = failureIssues(stuck, "Evaluation timed out");
+                    bucketIssues(failure, errors, improvements, thingsDoneRight);
+                    streamFile(submissionId, ++sequence, total, stuck, failure);
+                    failed++;
                 }
+                log.warn("Evaluation timed out for {} file(s): {}", pending.size(), pending);
+                break;
+            }
+            if (!pending.remove(filePath)) continue;
 
+            Map<String, List<IssueItem>> groupedIssues;
+            try {
+                groupedIssues = futureResults.get(filePath).join();
             } catch (Exception e) {
                 log.warn("Failed to get evaluation result for {}", filePath, e);
-                IssueItem errorItem = new IssueItem(
-                        "Evaluation failed: " + e.getMessage(),
-                        filePath,
-                        0,
-                        0,
-                        null,
-                        IssueItem.IssueSeverity.ERROR
-                );
-                addToMap(errors, filePath, errorItem);
+                groupedIssues = failureIssues(filePath, "Evaluation failed: " + e.getMessage());
+                failed++;
+            }
 
+            bucketIssues(groupedIssues, errors, improvements, thingsDoneRight);
+            streamFile(submissionId, ++sequence, total, filePath, groupedIssues);
+        }
+        return failed;
+    }
+
+    private void bucketIssues(Map<String, List<IssueItem>> groupedIssues,
+                              Map<String, List<IssueItem>> errors,
+                              Map<String, List<IssueItem>> improvements,
+                              Map<String, List<IssueItem>> thingsDoneRight) {
+        // Add to global buckets
+        if (groupedIssues.containsKey("errors")) {
+            for (IssueItem issue : groupedIssues.get("errors")) {
+                addToMap(errors, issue.getFilePath(), issue);
+            }
+        }
+        if (groupedIssues.containsKey("improvements")) {
+            for (IssueItem issue : groupedIssues.get("improvements")) {
+
+                addToMap(improvements, issue.getFilePath(), issue);
+            }
+        }
+        if (groupedIssues.containsKey("thingsDoneRight")) {
+            for (IssueItem issue : groupedIssues.get("thingsDoneRight")) {
+                addToMap(thingsDoneRight, issue.getFilePath(), issue);
             }
         }
     }
 
+    private Map<String, List<IssueItem>> failureIssues(String filePath, String message) {
+        IssueItem errorItem = new IssueItem(
+                message,
+                filePath,
+                0,
+                0,
+                null,
+                IssueItem.IssueSeverity.ERROR
+        );
+        Map<String, List<IssueItem>> m = new LinkedHashMap<>();
+        m.put("errors", new ArrayList<>(List.of(errorItem)));
+        return m;
+    }
 
+    private void streamFile(Long submissionId, int sequence, int total, String filePath, Map<String, List<IssueItem>> issues) {
+        if (!streamingEnabled) return;
+        feedbackProducer.produceFileFeedback(FileFeedbackEvent.file(submissionId, sequence, total, filePath, issues));
+    }
 
 
-    private List<String> generateOverallAssessment(Long submissionId, String userIntent, RepositoryTree repoTree) {
-        try {
-            // Step 1: Crawl and save repo summary
-            boolean success = summaryService.crawlAndSummarize(submissionId);
-            if (!success) {
-                throw new IllegalStateException("Failed to generate and save repo summary");
-            }
 
-            // Step 2: Fetch the saved repo summary
-            String repoSummary = projectService.getRepoSummary(submissionId)
-                    .orElseThrow(() -> new IllegalStateException("No repo summary found for submissionId: " + submissionId));
 
-            // Step 3: Construct prompts
+    private List<String> awaitOverallAssessment(CompletableFuture<List<String>> overallAssessment) {
+        try {
+            return overallAssessment.get(evaluationTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return List.of("Failed to generate overall assessment: interrupted");
+        } catch (Exception e) {
+            log.error("Failed to generate overall assessment", e);
+            return List.of("Failed to generate overall assessment: " + e.getMessage());
+        }
+    }
+
+    private List<String> generateOverallAssessment(String userIntent, String repoSummary) {
+        try {
+            // Step 1: Construct prompts
             String systemPrompt = """
         You are a software evaluator. The user describes an intent or goal, and you assess whether the codebase meets that goal.
         Return your evaluation in two parts:
@@ -275,10 +401,10 @@ public class RepositoryEvaluatorService {
 
             String userPrompt = "User Intent: " + userIntent + "\n\nRepository Summary:\n" + repoSummary;
 
-            // Step 4: Get response from GroqClient
-            String response = groqClient.getCompletion(systemPrompt, userPrompt, 1024, 0.3);
+            // Step 2: Get response from GroqClient
+            String response = groqClient.getCompletion(LlmCallType.OVERALL_ASSESSMENT, systemPrompt, userPrompt, 1024, 0.3);
 
-            // Step 5: Parse the response
+            // Step 3: Parse the response
 
             List<String> comments = new ArrayList<>();
             String[] lines = response.split("\n");
@@ -320,42 +446,4 @@ public class RepositoryEvaluatorService {
         map.computeIfAbsent(key, k -> new ArrayList<>()).add(issue);
     }
 
-    // -------- Rate limiter helpers (used for overall assessment only here) --------
-
-    private long estimateTokens(int chars) {
-        return Math.max(1, chars / 4);
-    }
-
-    private void acquireTokens(long needed) throws InterruptedException {
-        if (needed > groqTpmLimit) {
-            needed = groqTpmLimit;
-        }
-        synchronized (rlLock) {
-            refillTokens();
-            while (rlTokens < needed) {
-                long sleepMs = computeSleepMillis(needed);
-                rlLock.wait(sleepMs);
-                refillTokens();
-            }
-            rlTokens -= needed;
-        }
-    }
-
-    private void refillTokens() {
-        long now = System.currentTimeMillis();
-        long elapsedMs = now - rlLastRefillMs;
-        if (elapsedMs <= 0) return;
-        double perMs = (double) groqTpmLimit / 60000.0;
-        rlTokens = Math.min(groqTpmLimit, rlTokens + perMs * elapsedMs);
-        rlLastRefillMs = now;
-    }
-
-    private long computeSleepMillis(long needed) {
-        double deficit = needed - rlTokens;
-        if (deficit <= 0) return 0L;
-        double perMs = (double) groqTpmLimit / 60000.0;
-        long ms = (long) Math.ceil(deficit / perMs);
-        return Math.max(ms, 50L);
-    }
-
 }
\ No newline at end of file
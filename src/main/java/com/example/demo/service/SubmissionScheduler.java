@@ -0,0 +1,214 @@
+package com.example.demo.service;
+
+import com.example.demo.utils.ProgressLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs whole submissions (clone, evaluation, summaries) on a small worker pool so the Kafka
+ * listener thread returns immediately.
+ *
+ * Backpressure: the listener container is paused once submission.max-queued submissions are
+ * waiting and resumed when the backlog drains to half of that. A paused consumer keeps polling,
+ * so long evaluations no longer risk max.poll.interval rebalances. Records are acknowledged by
+ * the caller's completion callback, i.e. only after the submission finished (at-least-once).
+ *
+ * Shutdown: stops before the listener containers (lifecycle phase). The listener is paused, queued
+ * submissions are dropped and running ones get submission.shutdown-grace-seconds to finish. Any
+ * still running after that are interrupted and NOT acknowledged, so they are redelivered after
+ * restart instead of being lost.
+ */
+@Slf4j
+@Component
+public class SubmissionScheduler implements SmartLifecycle {
+
+    // @KafkaListener id of the evaluation-requests listener (used to pause/resume it)
+    public static final String LISTENER_ID = "evaluation-requests-listener";
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final ThreadPoolExecutor workers;
+    private final int highWatermark;
+    private final int lowWatermark;
+    private final long shutdownGraceMs;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder pauses = new LongAdder();
+    private volatile boolean paused;
+    private volatile boolean running;
+    // Set once in-flight submissions are being interrupted; they must not be acknowledged
+    private volatile boolean aborting;
+
+    public SubmissionScheduler(KafkaListenerEndpointRegistry registry,
+                               @Value("${submission.workers:2}") int workerCount,
+                               @Value("${submission.max-queued:4}") int maxQueued,
+                               @Value("${submission.shutdown-grace-seconds:30}") long shutdownGraceSeconds) {
+        this.registry = registry;
+        this.highWatermark = Math.max(1, maxQueued);
+        this.lowWatermark = highWatermark / 2;
+        this.shutdownGraceMs = TimeUnit.SECONDS.toMillis(Math.max(0, shutdownGraceSeconds));
+        AtomicInteger threadIds = new AtomicInteger();
+        // Unbounded queue on purpose: one poll may hand over several records after the pause request
+        this.workers = new ThreadPoolExecutor(
+                Math.max(1, workerCount), Math.max(1, workerCount),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                r -> new Thread(r, "submission-worker-" + threadIds.incrementAndGet()));
+        log.info("SubmissionScheduler initialized (workers={}, maxQueued={})", workerCount, highWatermark);
+    }
+
+    /**
+     * Queue a submission; onDone runs after the task, whether it succeeded or not, unless the task
+     * was interrupted by shutdown. Submissions arriving during shutdown are not run or acknowledged.
+     */
+    public void submit(String name, Runnable task, Runnable onDone) {
+        if (workers.isShutdown()) {
+            log.info("Shutting down, submission {} left unacknowledged for redelivery", name);
+            return;
+        }
+        queued.incrementAndGet();
+        updateBackpressure();
+        try {
+            workers.execute(() -> run(name, task, onDone));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            log.info("Shutting down, submission {} left unacknowledged for redelivery", name);
+        }
+    }
+
+    private void run(String name, Runnable task, Runnable onDone) {
+        queued.decrementAndGet();
+        inFlight.incrementAndGet();
+        updateBackpressure();
+        long start = System.currentTimeMillis();
+        try {
+            task.run();
+            completed.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.error("Submission {} failed", name, e);
+        } finally {
+            inFlight.decrementAndGet();
+            if (aborting) {
+                log.warn("Submission {} interrupted by shutdown, not acknowledged (redelivered after restart)", name);
+            } else {
+                try {
+                    onDone.run();
+                } catch (Exception e) {
+                    log.error("Completion callback failed for submission {}", name, e);
+                }
+            }
+            Map<String, Object> stats = new LinkedHashMap<>(getStats());
+            stats.put("submission", name);
+            stats.put("durationMs", System.currentTimeMillis() - start);
+            ProgressLog.write("submission.scheduler", stats);
+        }
+    }
+
+    /** True once shutdown has started interrupting running submissions. */
+    public boolean isAborting() {
+        return aborting;
+    }
+
+    /** Submissions waiting for a worker. */
+    public int getQueueLength() {
+        return queued.get();
+    }
+
+    /** Submissions currently being evaluated. */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("queued", queued.get());
+        m.put("inFlight", inFlight.get());
+        m.put("completed", completed.sum());
+        m.put("failed", failed.sum());
+        m.put("paused", paused);
+        m.put("pauses", pauses.sum());
+        return m;
+    }
+
+    private synchronized void updateBackpressure() {
+        // Paused for good once stopping
+        if (workers.isShutdown()) return;
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (container == null) return;
+        int backlog = queued.get();
+        if (!paused && backlog >= highWatermark) {
+            container.pause();
+            paused = true;
+            pauses.increment();
+            log.info("Pausing {} (queued={}, inFlight={})", LISTENER_ID, backlog, inFlight.get());
+        } else if (paused && backlog <= lowWatermark) {
+            container.resume();
+            paused = false;
+            log.info("Resuming {} (queued={}, inFlight={})", LISTENER_ID, backlog, inFlight.get());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Above the listener containers' phase, so this stops (and acknowledges) before they do
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (container != null) container.pause();
+
+        // Queued submissions never started: leave them unacknowledged
+        List<Runnable> dropped = new ArrayList<>();
+        workers.getQueue().drainTo(dropped);
+        queued.addAndGet(-dropped.size());
+        workers.shutdown();
+        log.info("Stopping: {} queued submissions left for redelivery, waiting up to {} ms for {} in flight",
+                dropped.size(), shutdownGraceMs, inFlight.get());
+        try {
+            if (!workers.awaitTermination(shutdownGraceMs, TimeUnit.MILLISECONDS)) {
+                shutdown();
+                workers.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            shutdown();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers.isTerminated()) return;
+        // Interrupted submissions are not acknowledged and are redelivered after restart
+        aborting = true;
+        workers.shutdownNow();
+    }
+}
@@ -6,14 +6,18 @@ import com.google.genai.Client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class AppConfig {
     private static final Logger log = LoggerFactory.getLogger(AppConfig.class);
 
     @Bean
+    @ConditionalOnProperty(name = "llm.provider", havingValue = "gemini", matchIfMissing = true)
     public Client genaiClient(@Value("${genai.api.key:}") String configApiKey) {
         // Try all possible sources
         String apiKey = System.getenv("GEMINI_API_KEY");
@@ -38,8 +42,71 @@ public class AppConfig {
         return new Client();
     }
 
+    // One limiter per JVM: per-file evaluation, folder summaries and the overall assessment share it
+    @Bean
+    public LlmRateLimiter llmRateLimiter(@Value("${groq.rpm.limit:0}") long rpmLimit,
+                                         @Value("${groq.tpm.limit:6000}") long tpmLimit) {
+        log.info("LLM rate limits: rpm={}, tpm={} (<= 0 means unlimited)", rpmLimit, tpmLimit);
+        return new LlmRateLimiter(rpmLimit, tpmLimit);
+    }
+
+    // One breaker per JVM, so a provider outage is detected across all submissions
+    @Bean
+    public CircuitBreaker llmCircuitBreaker(@Value("${llm.circuit.failure-rate-percent:50}") int failureRatePercent,
+                                            @Value("${llm.circuit.window:20}") int window,
+                                            @Value("${llm.circuit.min-calls:10}") int minCalls,
+                                            @Value("${llm.circuit.open-seconds:30}") long openSeconds,
+                                            @Value("${llm.circuit.half-open-calls:2}") int halfOpenCalls) {
+        return new CircuitBreaker("llm", failureRatePercent, window, minCalls, Duration.ofSeconds(openSeconds), halfOpenCalls);
+    }
+
+    @Bean
+    public LlmCallPolicy llmCallPolicy(@Value("${llm.call.deadline-seconds:120}") long deadlineSeconds,
+                                       @Value("${llm.retry.max-attempts:5}") int maxAttempts,
+                                       @Value("${llm.retry.base-delay-ms:200}") long baseDelayMs,
+                                       @Value("${llm.retry.max-delay-ms:20000}") long maxDelayMs,
+                                       @Value("${llm.hedge.enabled:true}") boolean hedgeEnabled,
+                                       @Value("${llm.hedge.percentile:95}") double hedgePercentile,
+                                       @Value("${llm.hedge.min-samples:20}") int hedgeMinSamples,
+                                       @Value("${llm.hedge.budget-percent:10}") int hedgeBudgetPercent) {
+        Duration deadline = deadlineSeconds > 0 ? Duration.ofSeconds(deadlineSeconds) : null;
+        return new LlmCallPolicy(deadline, maxAttempts, baseDelayMs, maxDelayMs,
+                hedgeEnabled, hedgePercentile, hedgeMinSamples, hedgeBudgetPercent);
+    }
+
+    // ---- Provider, chosen with llm.provider (gemini | openai | stub) ----
+
+    @Bean
+    @ConditionalOnProperty(name = "llm.provider", havingValue = "gemini", matchIfMissing = true)
+    public LlmClient geminiLlmClient(Client genaiClient, @Value("${llm.gemini.model:gemini-2.5-flash}") String model) {
+        return new GeminiLlmClient(genaiClient, model);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "llm.provider", havingValue = "openai")
+    public LlmClient openAiLlmClient(@Value("${llm.openai.base-url:https://api.openai.com/v1}") String baseUrl,
+                                     @Value("${llm.openai.api-key:}") String configApiKey,
+                                     @Value("${llm.openai.model:gpt-4o-mini}") String model) {
+        String apiKey = configApiKey.isBlank() ? System.getenv("OPENAI_API_KEY") : configApiKey;
+        log.info("Using OpenAI-compatible provider at {} (model={}, apiKey {})", baseUrl, model,
+                apiKey == null || apiKey.isBlank() ? "not set" : "set");
+        return new OpenAiCompatibleLlmClient(baseUrl, apiKey, model);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "llm.provider", havingValue = "stub")
+    public LlmClient stubLlmClient(@Value("${llm.stub.latency-median-ms:800}") long latencyMedianMs,
+                                   @Value("${llm.stub.latency-sigma:0.5}") double latencySigma,
+                                   @Value("${llm.stub.error-rate:0}") double errorRate,
+                                   @Value("${llm.stub.error-status:503}") int errorStatus,
+                                   @Value("${llm.stub.seed:42}") long seed,
+                                   @Value("${llm.stub.responses-dir:}") String responsesDir) {
+        return new StubLlmClient(latencyMedianMs, latencySigma, errorRate, errorStatus, seed, responsesDir);
+    }
+
     @Bean
-    public GroqClient groqClient(Client genaiClient) {
-        return new GroqClient(genaiClient);
+    public GroqClient groqClient(LlmClient llmClient, LlmRateLimiter llmRateLimiter,
+                                 CircuitBreaker llmCircuitBreaker, LlmCallPolicy llmCallPolicy) {
+        return new GroqClient(llmClient, llmRateLimiter, llmCircuitBreaker, llmCallPolicy);
     }
 }
\ No newline at end of file
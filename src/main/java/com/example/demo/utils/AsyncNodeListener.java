@@ -0,0 +1,103 @@
+package com.example.demo.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Decouples a NodeListener from the threads that scan the repository.
+ * Events are queued (bounded, so scanners block instead of buffering the whole repo) and
+ * replayed in order on a single dispatch thread, so the delegate needs no extra locking.
+ */
+@Slf4j
+public class AsyncNodeListener implements NodeListener {
+
+    private static final Runnable END_OF_SCAN = () -> {};
+
+    private final NodeListener delegate;
+    private final BlockingQueue<Runnable> events;
+    private final Thread dispatcher;
+    private volatile boolean aborted;
+
+    public AsyncNodeListener(NodeListener delegate, int queueCapacity) {
+        this.delegate = delegate;
+        this.events = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.dispatcher = new Thread(this::drain, "node-listener-dispatch");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    @Override
+    public void onFolder(String relativePath, String parentRelativePath) {
+        enqueue(() -> delegate.onFolder(relativePath, parentRelativePath));
+    }
+
+    @Override
+    public void onFile(String relativePath, String parentRelativePath, Path absolutePath) {
+        enqueue(() -> delegate.onFile(relativePath, parentRelativePath, absolutePath));
+    }
+
+    @Override
+    public void onFile(String relativePath, String parentRelativePath, Path absolutePath, ScannedFile scannedFile) {
+        enqueue(() -> delegate.onFile(relativePath, parentRelativePath, absolutePath, scannedFile));
+    }
+
+    /**
+     * Waits until every queued event has been handled, then completes the delegate.
+     */
+    @Override
+    public void onComplete() {
+        enqueue(END_OF_SCAN);
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for listener dispatch", e);
+        }
+        delegate.onComplete();
+    }
+
+    /**
+     * Stops dispatching after a failed scan: pending events are dropped, later ones ignored,
+     * and the delegate is not completed. Does not wait for an event already running.
+     */
+    public void abort() {
+        aborted = true;
+        // Wake the dispatch thread; a scanner still running may refill the queue in between
+        do {
+            events.clear();
+        } while (!events.offer(END_OF_SCAN));
+    }
+
+    private void enqueue(Runnable event) {
+        if (aborted) return;
+        try {
+            events.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing listener event", e);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable event;
+            try {
+                event = events.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (event == END_OF_SCAN || aborted) {
+                return;
+            }
+            try {
+                event.run();
+            } catch (Exception e) {
+                log.warn("Listener event failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.utils;
+
+
+import com.example.demo.DbModels.Dto.CodeFileDraft;
+import com.example.demo.DbModels.Project;
+import com.example.demo.DbService.Impl.ProjectStorageService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Buffers folders and files discovered by RepositoryTreeBuilder and persists them in batches,
+ * so the number of transactions scales with batch count rather than file count. A batch that
+ * fails (its transaction is rolled back) is saved again row by row, like DbNodeListener, so one
+ * bad row only loses itself.
+ *
+ * NOTE: not thread-safe; one instance per tree walk.
+ */
+@Slf4j
+public class BatchingNodeListener implements NodeListener {
+
+    private final Project project;
+    private final ProjectStorageService storage;
+    private final int batchSize;
+
+    private final Set<String> pendingFolders = new LinkedHashSet<>();
+    private final List<CodeFileDraft> pendingFiles = new ArrayList<>();
+
+    private int flushCount;
+    private int persistedFiles;
+
+    public BatchingNodeListener(Project project, ProjectStorageService storage, int batchSize) {
+        this.project = project;
+        this.storage = storage;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void onFolder(String relativePath, String parentRelativePath) {
+        pendingFolders.add(DbNodeListener.normalize(relativePath));
+        flushIfFull();
+    }
+
+    @Override
+    public void onFile(String relativePath, String parentRelativePath, Path absolutePath) {
+        onFile(relativePath, parentRelativePath, absolutePath, null);
+    }
+
+    @Override
+    public void onFile(String relativePath, String parentRelativePath, Path absolutePath, ScannedFile scannedFile) {
+        try {
+            pendingFiles.add(scannedFile != null
+                    ? DbNodeListener.describeFile(relativePath, scannedFile)
+                    : DbNodeListener.describeFile(relativePath, absolutePath));
+        } catch (Exception e) {
+            log.warn("Failed to describe file {}: {}", relativePath, e.getMessage());
+        }
+        flushIfFull();
+    }
+
+    @Override
+    public void onComplete() {
+        flush();
+        log.info("Persisted {} files in {} batches (batchSize={})", persistedFiles, flushCount, batchSize);
+    }
+
+    private void flushIfFull() {
+        if (pendingFolders.size() + pendingFiles.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (pendingFolders.isEmpty() && pendingFiles.isEmpty()) return;
+        try {
+            storage.saveFolderAndFileBatch(project, pendingFolders, pendingFiles);
+            flushCount++;
+            persistedFiles += pendingFiles.size();
+        } catch (Exception e) {
+            log.warn("Failed to persist batch of {} folders / {} files, saving row by row: {}",
+                    pendingFolders.size(), pendingFiles.size(), e.getMessage());
+            saveRowByRow();
+        } finally {
+            pendingFolders.clear();
+            pendingFiles.clear();
+        }
+    }
+
+    private void saveRowByRow() {
+        for (String folder : pendingFolders) {
+            try {
+                storage.getOrCreateFolder(project, folder);
+            } catch (Exception e) {
+                log.warn("Failed to persist folder {}: {}", folder, e.getMessage());
+            }
+        }
+        for (CodeFileDraft draft : pendingFiles) {
+            try {
+                DbNodeListener.saveFile(storage, project, draft);
+                persistedFiles++;
+            } catch (Exception e) {
+                log.warn("Failed to persist file {}: {}", draft.getPath(), e.getMessage());
+            }
+        }
+    }
+}
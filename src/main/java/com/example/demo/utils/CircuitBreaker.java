@@ -0,0 +1,187 @@
+package com.example.demo.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count-based circuit breaker shared by every LLM call.
+ *
+ * CLOSED: outcomes of the last windowSize attempts are kept; once at least minCalls are recorded
+ * and the failure rate reaches failureRatePercent the breaker OPENs. OPEN: attempts are rejected
+ * without reaching the provider for openDuration. HALF_OPEN: up to halfOpenCalls trial attempts
+ * are let through; all succeeding closes the breaker, any failure opens it again.
+ *
+ * Only provider-side failures (5xx, I/O, attempts cut off by the call deadline) should be
+ * reported as failures. Rate limiting means the provider is healthy but busy, and a fatal request
+ * error says nothing about provider health; both are released.
+ */
+@Slf4j
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public static final class OpenException extends RuntimeException {
+        public OpenException(String message) {
+            super(message);
+        }
+    }
+
+    private final String name;
+    private final int failureRatePercent;
+    private final int minCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // Ring of recent outcomes (true = failure)
+    private final boolean[] window;
+    private int windowPos;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder halfOpened = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+
+    public CircuitBreaker(String name, int failureRatePercent, int windowSize, int minCalls,
+                          Duration openDuration, int halfOpenCalls) {
+        this.name = name;
+        this.failureRatePercent = Math.max(1, Math.min(100, failureRatePercent));
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minCalls = Math.max(1, Math.min(minCalls, window.length));
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+
+    /**
+     * Cheap check before reserving rate-limit budget: false while OPEN and the cool-down has not passed.
+     */
+    public synchronized boolean isCallPermitted() {
+        return state != State.OPEN || System.nanoTime() - openedAt >= openNanos;
+    }
+
+    /**
+     * Time until isCallPermitted() turns true again; 0 unless OPEN.
+     */
+    public synchronized long remainingOpenNanos() {
+        if (state != State.OPEN) return 0;
+        return Math.max(0, openNanos - (System.nanoTime() - openedAt));
+    }
+
+    /**
+     * Claim permission for one attempt. Every successful claim must be followed by exactly one of
+     * onSuccess, onFailure or release.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                rejected.increment();
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                rejected.increment();
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= halfOpenCalls) transition(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transition(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && windowCount >= minCalls
+                && windowFailures * 100 >= windowCount * failureRatePercent) {
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * Give back a claim whose outcome says nothing about provider health (cancelled, rate limited,
+     * fatal request error).
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && trialsStarted > trialsSucceeded) trialsStarted--;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * state (0 closed, 1 open, 2 half-open), failureRatePercent, windowCalls, rejected, opened, halfOpened, closed.
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> m = new LinkedHashMap<>();
+        synchronized (this) {
+            m.put("state", (long) state.ordinal());
+            m.put("failureRatePercent", windowCount == 0 ? 0 : (long) windowFailures * 100 / windowCount);
+            m.put("windowCalls", (long) windowCount);
+        }
+        m.put("rejected", rejected.sum());
+        m.put("opened", opened.sum());
+        m.put("halfOpened", halfOpened.sum());
+        m.put("closed", closed.sum());
+        return m;
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowPos]) windowFailures--;
+        } else {
+            windowCount++;
+        }
+        window[windowPos] = failure;
+        if (failure) windowFailures++;
+        windowPos = (windowPos + 1) % window.length;
+    }
+
+    private void transition(State next) {
+        State previous = state;
+        state = next;
+        switch (next) {
+            case OPEN -> {
+                openedAt = System.nanoTime();
+                opened.increment();
+                log.warn("Circuit {} OPEN (was {}, failures {}/{}), rejecting calls for {} ms",
+                        name, previous, windowFailures, windowCount, openNanos / 1_000_000);
+            }
+            case HALF_OPEN -> {
+                trialsStarted = 0;
+                trialsSucceeded = 0;
+                halfOpened.increment();
+                log.info("Circuit {} HALF_OPEN, allowing {} trial calls", name, halfOpenCalls);
+            }
+            case CLOSED -> {
+                windowPos = 0;
+                windowCount = 0;
+                windowFailures = 0;
+                closed.increment();
+                log.info("Circuit {} CLOSED", name);
+            }
+        }
+    }
+}
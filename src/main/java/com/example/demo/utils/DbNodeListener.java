@@ -1,17 +1,14 @@
 package com.example.demo.utils;
 
 
+import com.example.demo.DbModels.Dto.CodeFileDraft;
 import com.example.demo.DbModels.Project;
 import com.example.demo.DbService.Impl.ProjectStorageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.MessageDigest;
 import java.util.ArrayList;
-import java.util.HexFormat;
 import java.util.List;
 import java.util.Locale;
 
@@ -27,7 +24,6 @@ public class DbNodeListener implements NodeListener {
 
     // Snippet and content limits to avoid large payloads in DB
     private static final int MAX_SNIPPET_CHARS = 4000;     // keep it small
-    private static final long MAX_HASH_BYTES = 512_000;    // hash at most first 500KB
 
     @Override
     public void onFolder(String relativePath, String parentRelativePath) {
@@ -41,41 +37,76 @@ public class DbNodeListener implements NodeListener {
 
     @Override
     public void onFile(String relativePath, String parentRelativePath, Path absolutePath) {
+        onFile(relativePath, parentRelativePath, absolutePath, null);
+    }
+
+    @Override
+    public void onFile(String relativePath, String parentRelativePath, Path absolutePath, ScannedFile scannedFile) {
         try {
-            String repoRelPath = normalize(relativePath);
+            CodeFileDraft draft = scannedFile != null
+                    ? describeFile(relativePath, scannedFile)
+                    : describeFile(relativePath, absolutePath);
+            saveFile(storage, project, draft);
+        } catch (Exception e) {
+            log.warn("Failed to persist file {}: {}", relativePath, e.getMessage());
+        }
+    }
 
-            // Basic metadata
-            String language = detectLanguage(repoRelPath);
-            Integer sizeBytes = safeSize(absolutePath);
-            String content = safeRead(absolutePath);
-            Integer lines = content != null ? countLines(content) : null;
-            String contentHash = safeHash(absolutePath);
-            String contentSnippet = content != null ? snippet(content, MAX_SNIPPET_CHARS) : null;
-
-            // taking/calling can be filled by a later analyzer; keep empty here
-            List<String> taking = new ArrayList<>();
-            List<String> calling = new ArrayList<>();
-
-            storage.saveOrUpdateFile(
-                    project,
-                    repoRelPath,
-                    language,
-                    sizeBytes,
-                    lines,
-                    contentHash,
-                    contentSnippet,
-                    taking,
-                    calling
-            );
+    /**
+     * Upsert one file row (shared with BatchingNodeListener's row-by-row fallback).
+     */
+    static void saveFile(ProjectStorageService storage, Project project, CodeFileDraft draft) {
+        // taking/calling can be filled by a later analyzer; keep empty here
+        List<String> taking = new ArrayList<>();
+        List<String> calling = new ArrayList<>();
+
+        storage.saveOrUpdateFile(
+                project,
+                draft.getPath(),
+                draft.getLanguage(),
+                draft.getSizeBytes(),
+                draft.getLines(),
+                draft.getContentHash(),
+                draft.getContentSnippet(),
+                taking,
+                calling
+        );
+    }
 
+    /**
+     * Collect the metadata persisted for a file (shared with BatchingNodeListener).
+     * Reads the file from disk; prefer the ScannedFile overload when the scan already has the bytes.
+     */
+    static CodeFileDraft describeFile(String relativePath, Path absolutePath) {
+        try {
+            return describeFile(relativePath, ScannedFile.read(absolutePath));
         } catch (Exception e) {
-            log.warn("Failed to persist file {}: {}", relativePath, e.getMessage());
+            // Unreadable file: keep the row with path/language only
+            String repoRelPath = normalize(relativePath);
+            return new CodeFileDraft(repoRelPath, detectLanguage(repoRelPath), null, null, null, null);
         }
     }
 
+    /**
+     * Collect the metadata persisted for a file from the buffer read once by the scan.
+     */
+    static CodeFileDraft describeFile(String relativePath, ScannedFile scannedFile) {
+        String repoRelPath = normalize(relativePath);
+        String content = scannedFile.getContent();
+
+        return new CodeFileDraft(
+                repoRelPath,
+                detectLanguage(repoRelPath),
+                scannedFile.getSizeBytes(),
+                scannedFile.getLineCount(),
+                scannedFile.getSha256(),
+                snippet(content, MAX_SNIPPET_CHARS)
+        );
+    }
+
     /* ---------------- helpers ---------------- */
 
-    private static String normalize(String p) {
+    static String normalize(String p) {
         if (p == null) return "";
         String n = p.replace('\\', '/').trim();
         if (n.startsWith("./")) n = n.substring(2);
@@ -107,64 +138,9 @@ public class DbNodeListener implements NodeListener {
         };
     }
 
-    private static Integer safeSize(Path file) {
-        try {
-            long s = Files.size(file);
-            return s > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) s;
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
-    private static String safeRead(Path file) {
-        try {
-            // Only read text-like files; RepositoryTreeBuilder already filters noisy/binary/huge files.
-            return Files.readString(file);
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
-    private static int countLines(String s) {
-        if (s.isEmpty()) return 0;
-        int count = 1;
-        for (int i = 0; i < s.length(); i++) {
-            if (s.charAt(i) == '\n') count++;
-        }
-        return count;
-    }
-
     private static String snippet(String s, int maxChars) {
         if (s == null) return null;
         if (s.length() <= maxChars) return s;
         return s.substring(0, maxChars);
     }
-
-    private static String safeHash(Path file) {
-        try {
-            long size = Files.size(file);
-            byte[] bytes;
-            if (size <= MAX_HASH_BYTES) {
-                bytes = Files.readAllBytes(file);
-            } else {
-                // Hash only the first MAX_HASH_BYTES to keep it bounded
-                byte[] buf = new byte[(int) MAX_HASH_BYTES];
-                try (var in = Files.newInputStream(file)) {
-                    int read = in.read(buf);
-                    if (read < buf.length) {
-                        byte[] exact = new byte[read];
-                        System.arraycopy(buf, 0, exact, 0, read);
-                        bytes = exact;
-                    } else {
-                        bytes = buf;
-                    }
-                }
-            }
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] digest = md.digest(bytes);
-            return HexFormat.of().formatHex(digest);
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
 }
\ No newline at end of file
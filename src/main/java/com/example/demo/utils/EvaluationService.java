@@ -1,7 +1,9 @@
 package com.example.demo.utils;
 
+import com.example.demo.DbService.Impl.EvaluationCacheService;
 import com.example.demo.DbService.Impl.ProjectStorageService;
 import com.example.demo.model.EvaluationContext;
+import com.example.demo.model.IncrementalPlan;
 import com.example.demo.model.IssueItem;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -25,93 +28,172 @@ import java.util.concurrent.*;
 public class EvaluationService {
 
     private final GroqClient groqClient;
+    private final LlmTaskExecutor llmTaskExecutor;
     private static final Logger logger = LoggerFactory.getLogger(EvaluationService.class);
 
-    private final int concurrencyLevel = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
-    private final int evaluationTimeoutSeconds = 600;
     private final int EVAL_MAX_CHARS = 32_000;
+    // Bump whenever the evaluation prompt changes so cached evaluations are not reused
+    private static final String PROMPT_VERSION = "eval-v1";
+    // Packed (multi-file) prompt; cached separately since its answers differ from single-file ones
+    // v2: asks for codeSnippet like single-file reviews (v1 answers have none)
+    private static final String PACKED_PROMPT_VERSION = "eval-packed-v2";
+    // v2: results of files cut at max-chunks are no longer cached (v1 entries may be partial)
+    private static final String CHUNKED_PROMPT_VERSION = "eval-chunked-v2";
+
+    // Shared by single-file and packed reviews so both return the same issue shape
+    private static final String REVIEW_INSTRUCTIONS = """
+You are a code reviewer assistant. Please follow these instructions strictly:
+- Provide feedback on errors, improvements, and things done right.
+- Use a structured JSON format with keys: errors, improvements, thingsDoneRight.
+- Each key should map to a list of issue objects with fields: title, filePath, lineStart, lineEnd, severity, codeSnippet.
+- The field 'codeSnippet' must contain the exact code from the file, between lineStart and lineEnd (inclusive).
+- Use severity levels: ERROR, WARNING, INFO.
+""";
+    private static final String EVAL_SYSTEM_PROMPT = REVIEW_INSTRUCTIONS + """
+- Only return a single JSON object first, with no additional explanation.
+- After the JSON object, provide a brief summary describing the **purpose and functionality of the file** — what this file is essentially doing or responsible for.
+""";
+    private static final String PACKED_SYSTEM_PROMPT = REVIEW_INSTRUCTIONS + """
+- Several files are reviewed at once: give each file its own entry in the "files" list described by the user, with those keys plus filePath and summary.
+- Each entry's summary briefly describes the purpose and functionality of that file.
+- Only return that JSON object, with no additional explanation.
+""";
     private static final ObjectMapper mapper = new ObjectMapper();
     private final ProjectStorageService projectStorageService;
+    private final EvaluationCacheService evaluationCache;
 
+    // Small files are reviewed several per request (see packSmallFiles)
+    @Value("${evaluation.packing.enabled:true}")
+    private boolean packingEnabled;
 
-    public Map<String, Future<Map<String, List<IssueItem>>>> submitFilesForEvaluation(
-            RepositoryTree repoTree, EvaluationContext context, Path repoRoot, Long submissionId) {
+    @Value("${evaluation.packing.max-file-chars:2000}")
+    private int packMaxFileChars;
 
-        Map<String, Future<Map<String, List<IssueItem>>>> futureResults = new LinkedHashMap<>();
-        ExecutorService executor = Executors.newFixedThreadPool(concurrencyLevel);
+    @Value("${evaluation.packing.max-chars:12000}")
+    private int packMaxChars;
 
-        try {
-            Map<String, FileNode> allFiles = repoTree.collectSourceFiles(repoRoot);
+    @Value("${evaluation.packing.max-files:8}")
+    private int packMaxFiles;
+
+    // Large files are split at structural boundaries and their parts reviewed in parallel
+    @Value("${evaluation.chunking.enabled:true}")
+    private boolean chunkingEnabled;
 
-            for (Map.Entry<String, FileNode> e : allFiles.entrySet()) {
-                String repoRelPath = toRepoRelKey(e.getKey());
-                FileNode node = e.getValue();
-                // Submit the evaluation task returning Map<String, List<IssueItem>> per file
-                futureResults.put(repoRelPath, submitFileEvaluation(repoRelPath, node, context, executor, repoRoot,submissionId));
+    @Value("${evaluation.chunking.chunk-chars:12000}")
+    private int chunkChars;
 
+    @Value("${evaluation.chunking.max-chunks:8}")
+    private int maxChunks;
+
+
+    public Map<String, CompletableFuture<Map<String, List<IssueItem>>>> submitFilesForEvaluation(
+            RepositoryTree repoTree, EvaluationContext context, Path repoRoot, Long submissionId) {
+        return submitFilesForEvaluation(repoTree, context, repoRoot, submissionId, IncrementalPlan.full(), FileEvaluationListener.NONE);
+    }
+
+    /**
+     * Same as above, but files the plan marks reusable get the prior submission's issues and
+     * summary copied over instead of an LLM call, and the listener hears about each file's
+     * summary as soon as it is known.
+     */
+    public Map<String, CompletableFuture<Map<String, List<IssueItem>>>> submitFilesForEvaluation(
+            RepositoryTree repoTree, EvaluationContext context, Path repoRoot, Long submissionId,
+            IncrementalPlan plan, FileEvaluationListener listener) {
+
+        Map<String, CompletableFuture<Map<String, List<IssueItem>>>> futureResults = new LinkedHashMap<>();
+
+        // Tasks run on the shared LLM executor; callers wait on the returned futures
+        Map<String, FileNode> allFiles = repoTree.collectSourceFiles(repoRoot);
+
+        List<String> reused = new ArrayList<>();
+        SortedMap<String, FileNode> packable = new TreeMap<>();
+        for (Map.Entry<String, FileNode> e : allFiles.entrySet()) {
+            String repoRelPath = toRepoRelKey(e.getKey());
+            FileNode node = e.getValue();
+            if (plan.isReusable(repoRelPath)) {
+                reused.add(repoRelPath);
+                futureResults.put(repoRelPath, CompletableFuture.completedFuture(plan.getReusedIssues().get(repoRelPath)));
+                continue;
             }
-        } finally {
-            executor.shutdown();
-            try {
-                if (!executor.awaitTermination(evaluationTimeoutSeconds, TimeUnit.SECONDS)) {
-                    executor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                executor.shutdownNow();
-                Thread.currentThread().interrupt();
+            if (packingEnabled && node.getContent() != null && node.getContent().length() <= packMaxFileChars) {
+                packable.put(repoRelPath, node);
+                continue;
             }
+            // Submit the evaluation task returning Map<String, List<IssueItem>> per file
+            boolean useCache = !plan.isContextChanged(repoRelPath);
+            if (chunkingEnabled && node.getContent() != null && node.getContent().length() > chunkChars) {
+                futureResults.put(repoRelPath, submitChunkedEvaluation(repoRelPath, node, context, submissionId, useCache, listener));
+            } else {
+                futureResults.put(repoRelPath, submitFileEvaluation(repoRelPath, node, context, repoRoot, submissionId, useCache, listener));
+            }
+
         }
 
-        logger.info("Submitted evaluation tasks: {}", futureResults.keySet());
+        for (List<String> pack : packSmallFiles(packable)) {
+            if (pack.size() == 1) {
+                String path = pack.get(0);
+                futureResults.put(path, submitFileEvaluation(path, packable.get(path), context, repoRoot, submissionId,
+                        !plan.isContextChanged(path), listener));
+                continue;
+            }
+            Map<String, FileNode> nodes = new LinkedHashMap<>();
+            pack.forEach(path -> nodes.put(path, packable.get(path)));
+            CompletableFuture<Map<String, Map<String, List<IssueItem>>>> packResult = llmTaskExecutor.submit(submissionId,
+                    () -> evaluatePack(nodes, context, repoRoot, submissionId, plan, listener));
+            for (String path : pack) {
+                futureResults.put(path, packResult.thenApply(results -> results.get(path)));
+            }
+        }
+
+        if (!reused.isEmpty()) {
+            int copied = projectStorageService.copyFileEvaluations(plan.getPriorSubmissionId(), submissionId, reused);
+            logger.info("Reused {} evaluations from submission {}", copied, plan.getPriorSubmissionId());
+            for (String path : reused) {
+                notifyListener(listener, path, plan.getReusedSummaries().get(path));
+            }
+        }
+
+        logger.info("Submitted evaluation tasks: {} (inFlight={}, waiting={})",
+                futureResults.keySet(), llmTaskExecutor.getInFlight(), llmTaskExecutor.getWaiting());
         return futureResults;
     }
 
 
-    private Future<Map<String, List<IssueItem>>> submitFileEvaluation(
-            String repoRelPath, FileNode fileNode, EvaluationContext context, ExecutorService executor, Path repoRoot,Long submissionId) {
-        return executor.submit(() -> evaluateFile(repoRelPath, fileNode, context, repoRoot,submissionId));
+    private CompletableFuture<Map<String, List<IssueItem>>> submitFileEvaluation(
+            String repoRelPath, FileNode fileNode, EvaluationContext context, Path repoRoot, Long submissionId,
+            boolean useCache, FileEvaluationListener listener) {
+        return llmTaskExecutor.submit(submissionId, () -> evaluateFile(repoRelPath, fileNode, context, repoRoot, submissionId, useCache, listener));
     }
 
 
-    private Map<String, List<IssueItem>> evaluateFile(String repoRelPath, FileNode fileNode, EvaluationContext context, Path repoRoot, Long submissionId) {
+    private Map<String, List<IssueItem>> evaluateFile(String repoRelPath, FileNode fileNode, EvaluationContext context, Path repoRoot, Long submissionId,
+                                                      boolean useCache, FileEvaluationListener listener) {
 
         try {
             String nodePath = fileNode.getPath(); // usually absolute from tree builder
             log.info("Evaluating file: {}", nodePath);
 
-            String content = fileNode.getContent();
-            logger.info("Initial content for {} is {}", nodePath, (content == null ? "null" : "len=" + content.length()));
-            if (content == null) {
-                content = safeRead(repoRoot, repoRelPath, nodePath);
-                fileNode.setContent(content);
-                logger.info("Read content for {} via disk -> len={}", nodePath, (content == null ? 0 : content.length()));
-            }
-            if (content == null) content = "";
+            String content = loadContent(repoRelPath, fileNode, repoRoot);
             String trimmed = truncate(content, EVAL_MAX_CHARS);
 
             // CRITICAL: use repo-relative key for context
             Map<String, Object> fileContext = context.getFileContext(repoRelPath);
             String language = Objects.toString(fileContext.get("language"), null);
 
+            // Identical content already reviewed (e.g. template boilerplate) -> skip the LLM call
+            // (skipped when the file's dependency context changed since it was last reviewed)
+            String contentHash = fileNode.getContentHash();
+            if (useCache) {
+                Map<String, List<IssueItem>> cached = fromCache(submissionId, repoRelPath, contentHash, language, PROMPT_VERSION, listener);
+                if (cached != null) return cached;
+            }
+
             String prompt = LlmPromptBuilder.buildEvaluationPrompt(
                     repoRelPath, language, trimmed, fileContext,
                     /* maxDeps */ 20, /* maxDependents */ 20, /* maxExports */ 30
             );
 
-            String systemPrompt = """
-You are a code reviewer assistant. Please follow these instructions strictly:
-- Provide feedback on errors, improvements, and things done right.
-- Use a structured JSON format with keys: errors, improvements, thingsDoneRight.
-- Each key should map to a list of issue objects with fields: title, filePath, lineStart, lineEnd, severity, codeSnippet.
-- The field 'codeSnippet' must contain the exact code from the file, between lineStart and lineEnd (inclusive).
-- Only return a single JSON object first, with no additional explanation.
-- After the JSON object, provide a brief summary describing the **purpose and functionality of the file** — what this file is essentially doing or responsible for.
-- Use severity levels: ERROR, WARNING, INFO.
-""";
-
-
-            long estTokens = estimateTokens(prompt.length() + systemPrompt.length());
-            String response = groqClient.getCompletion(systemPrompt, prompt, 1024, 0.2);
+            String response = groqClient.getCompletion(LlmCallType.FILE_EVALUATION, EVAL_SYSTEM_PROMPT, prompt, 1024, 0.2);
             logger.info("LLM response length for {} = {}", repoRelPath, response == null ? 0 : response.length());
 
 
@@ -119,42 +201,385 @@ You are a code reviewer assistant. Please follow these instructions strictly:
             LlmResponseParser.ParsedResponse parsed = LlmResponseParser.parseLlmResponse(response);
             Map<String, Object> evaluation = JsonParser.parseEvaluation(parsed.jsonPart);
 
-            if (!parsed.summaryPart.isEmpty()) {
-                boolean saved = projectStorageService.addSummaryToProjectFiles(submissionId, repoRelPath, parsed.summaryPart);
+            return recordEvaluation(submissionId, repoRelPath, evaluation, parsed.summaryPart,
+                    contentHash, language, PROMPT_VERSION, listener);
+
+        }catch (Exception e) {
+            log.error("Error evaluating file: {}", fileNode.getPath(), e);
+            return errorResult(repoRelPath, e);
+        }
+
+
+    }
+
+    /**
+     * Review a large file as parallel chunks and merge the results. Chunks are independent tasks
+     * on the executor; merging is chained on their completion, so no task waits on another.
+     */
+    private CompletableFuture<Map<String, List<IssueItem>>> submitChunkedEvaluation(
+            String repoRelPath, FileNode fileNode, EvaluationContext context, Long submissionId,
+            boolean useCache, FileEvaluationListener listener) {
+        Map<String, Object> fileContext = context.getFileContext(repoRelPath);
+        String language = Objects.toString(fileContext.get("language"), null);
+        String contentHash = fileNode.getContentHash();
+
+        try {
+            if (useCache) {
+                Map<String, List<IssueItem>> cached = fromCache(submissionId, repoRelPath, contentHash, language, CHUNKED_PROMPT_VERSION, listener);
+                if (cached != null) return CompletableFuture.completedFuture(cached);
+            }
+        } catch (Exception e) {
+            log.warn("Cache lookup failed for {}: {}", repoRelPath, e.getMessage());
+        }
+
+        List<SourceChunker.Chunk> chunks = SourceChunker.split(fileNode.getContent(), chunkChars);
+        // Lines past the chunk limit are reported as not reviewed, and the result is not cached
+        List<SourceChunker.Chunk> notReviewed = List.of();
+        if (chunks.size() > maxChunks) {
+            log.warn("{} has {} chunks; only the first {} (lines 1-{}) are reviewed",
+                    repoRelPath, chunks.size(), maxChunks, chunks.get(maxChunks - 1).getEndLine());
+            notReviewed = chunks.subList(maxChunks, chunks.size());
+            chunks = chunks.subList(0, maxChunks);
+        }
+        log.info("Evaluating {} in {} chunks", repoRelPath, chunks.size());
+
+        int total = chunks.size();
+        List<SourceChunker.Chunk> skipped = notReviewed;
+        List<CompletableFuture<ChunkResult>> parts = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            SourceChunker.Chunk chunk = chunks.get(i);
+            int part = i + 1;
+            parts.add(llmTaskExecutor.submitAsync(submissionId, () -> evaluateChunk(repoRelPath, language, chunk, part, total, fileContext))
+                    .exceptionally(ex -> ChunkResult.failed(chunk, ex)));
+        }
+
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    List<ChunkResult> results = new ArrayList<>();
+                    parts.forEach(p -> results.add(p.join()));
+                    return mergeChunks(submissionId, repoRelPath, results, skipped, contentHash, language, listener);
+                })
+                .exceptionally(ex -> {
+                    log.error("Error merging chunked evaluation of {}", repoRelPath, ex);
+                    return errorResult(repoRelPath, ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                });
+    }
+
+    private CompletableFuture<ChunkResult> evaluateChunk(String repoRelPath, String language, SourceChunker.Chunk chunk,
+                                                         int part, int total, Map<String, Object> fileContext) {
+        String prompt = LlmPromptBuilder.buildChunkEvaluationPrompt(repoRelPath, language, chunk.getText(), part, total,
+                chunk.getStartLine(), chunk.getEndLine(), fileContext);
+        return groqClient.getCompletionAsync(LlmCallType.CHUNK_EVALUATION, EVAL_SYSTEM_PROMPT, prompt, 1024, 0.2)
+                .thenApply(response -> {
+                    logger.info("LLM response length for {} part {}/{} = {}", repoRelPath, part, total, response == null ? 0 : response.length());
+                    LlmResponseParser.ParsedResponse parsed = LlmResponseParser.parseLlmResponse(response);
+                    Map<String, Object> evaluation = JsonParser.parseEvaluation(parsed.jsonPart);
+                    Map<String, List<IssueItem>> issues = flattenIssuesWithCategories(evaluation, repoRelPath);
+                    return new ChunkResult(chunk, shiftLines(issues, chunk.getStartLine() - 1), parsed.summaryPart, !evaluation.isEmpty(), null);
+                });
+    }
+
+    // Merge chunk issues in file order, dropping duplicates (same category, title and start line);
+    // notReviewed are the chunks past the chunk limit
+    private Map<String, List<IssueItem>> mergeChunks(Long submissionId, String repoRelPath, List<ChunkResult> results,
+                                                     List<SourceChunker.Chunk> notReviewed, String contentHash, String language,
+                                                     FileEvaluationListener listener) {
+        Map<String, List<IssueItem>> merged = new LinkedHashMap<>();
+        for (String category : List.of("errors", "improvements", "thingsDoneRight")) {
+            merged.put(category, new ArrayList<>());
+        }
+        Set<String> seen = new HashSet<>();
+        List<String> summaries = new ArrayList<>();
+        boolean complete = true;
+
+        for (ChunkResult r : results) {
+            if (r.error != null) {
+                complete = false;
+                merged.get("errors").add(new IssueItem(
+                        "Failed to evaluate lines " + r.chunk.getStartLine() + "-" + r.chunk.getEndLine() + ": " + r.error,
+                        repoRelPath, r.chunk.getStartLine(), r.chunk.getEndLine(), null, IssueItem.IssueSeverity.ERROR));
+                continue;
+            }
+            complete &= r.parsed;
+            for (Map.Entry<String, List<IssueItem>> e : r.issues.entrySet()) {
+                for (IssueItem issue : e.getValue()) {
+                    String key = e.getKey() + "|" + Objects.toString(issue.getTitle(), "").trim().toLowerCase(Locale.ROOT)
+                            + "|" + issue.getLineStart();
+                    if (seen.add(key)) {
+                        merged.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).add(issue);
+                    }
+                }
+            }
+            if (r.summary != null && !r.summary.isBlank()) summaries.add(r.summary.trim());
+        }
+
+        if (!notReviewed.isEmpty()) {
+            // Partial review: report it and keep it out of the cache, which stands for the whole file
+            complete = false;
+            int from = notReviewed.get(0).getStartLine();
+            int reviewedTo = results.isEmpty() ? 0 : results.get(results.size() - 1).chunk.getEndLine();
+            // A hard-split long line may be cut part-way
+            String where = from > reviewedTo ? "Not reviewed past line " + reviewedTo : "Not reviewed past part of line " + from;
+            merged.get("errors").add(new IssueItem(
+                    where + ": file exceeds " + maxChunks
+                            + " chunks of " + chunkChars + " characters",
+                    repoRelPath, from, notReviewed.get(notReviewed.size() - 1).getEndLine(), null, IssueItem.IssueSeverity.ERROR));
+        }
 
-                if (!saved) {
-                    // Handle save failure, logging, etc.
-                    throw new RuntimeException("Failed to add summary to project files for submission " + submissionId);
+        return recordIssues(submissionId, repoRelPath, merged, String.join("\n\n", summaries), complete,
+                contentHash, language, CHUNKED_PROMPT_VERSION, listener);
+    }
+
+    // Chunk-relative line numbers to file line numbers
+    static Map<String, List<IssueItem>> shiftLines(Map<String, List<IssueItem>> issues, int offset) {
+        if (offset == 0) return issues;
+        Map<String, List<IssueItem>> out = new LinkedHashMap<>();
+        for (Map.Entry<String, List<IssueItem>> e : issues.entrySet()) {
+            List<IssueItem> shifted = new ArrayList<>();
+            for (IssueItem i : e.getValue()) {
+                shifted.add(new IssueItem(i.getTitle(), i.getFilePath(),
+                        i.getLineStart() == null ? null : i.getLineStart() + offset,
+                        i.getLineEnd() == null ? null : i.getLineEnd() + offset,
+                        i.getCodeSnippet(), i.getSeverity()));
+            }
+            out.put(e.getKey(), shifted);
+        }
+        return out;
+    }
+
+    private static final class ChunkResult {
+        final SourceChunker.Chunk chunk;
+        final Map<String, List<IssueItem>> issues;
+        final String summary;
+        final boolean parsed;
+        final String error;
+
+        ChunkResult(SourceChunker.Chunk chunk, Map<String, List<IssueItem>> issues, String summary, boolean parsed, String error) {
+            this.chunk = chunk;
+            this.issues = issues;
+            this.summary = summary;
+            this.parsed = parsed;
+            this.error = error;
+        }
+
+        static ChunkResult failed(SourceChunker.Chunk chunk, Throwable ex) {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            return new ChunkResult(chunk, Map.of(), null, false, cause.getMessage());
+        }
+    }
+
+    /**
+     * Review several small files with one request and split the answer per file.
+     * Cache hits are answered individually first; files missing from the answer fall back to a
+     * single-file evaluation inside this same task.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, List<IssueItem>>> evaluatePack(Map<String, FileNode> nodes, EvaluationContext context, Path repoRoot,
+                                                                   Long submissionId, IncrementalPlan plan, FileEvaluationListener listener) {
+        Map<String, Map<String, List<IssueItem>>> results = new LinkedHashMap<>();
+        List<LlmPromptBuilder.FileSection> sections = new ArrayList<>();
+        Map<String, String> languages = new HashMap<>();
+
+        for (Map.Entry<String, FileNode> e : nodes.entrySet()) {
+            String path = e.getKey();
+            try {
+                String content = loadContent(path, e.getValue(), repoRoot);
+                Map<String, Object> fileContext = context.getFileContext(path);
+                String language = Objects.toString(fileContext.get("language"), null);
+                languages.put(path, language);
+                if (!plan.isContextChanged(path)) {
+                    Map<String, List<IssueItem>> cached = fromCache(submissionId, path, e.getValue().getContentHash(),
+                            language, PACKED_PROMPT_VERSION, listener);
+                    if (cached != null) {
+                        results.put(path, cached);
+                        continue;
+                    }
                 }
+                sections.add(new LlmPromptBuilder.FileSection(path, language, content, fileContext));
+            } catch (Exception ex) {
+                log.error("Error preparing packed file: {}", path, ex);
+                results.put(path, errorResult(path, ex));
             }
-            LLMLogger.saveParsedEvaluationToFile(evaluation, repoRelPath);
-            return flattenIssuesWithCategories(evaluation, repoRelPath);
+        }
+        if (sections.isEmpty()) return results;
 
-        }catch (Exception e) {
-            log.error("Error evaluating file: {}", fileNode.getPath(), e);
+        Map<String, Map<String, Object>> answers = new HashMap<>();
+        if (sections.size() > 1) {
+            String response;
+            try {
+                String prompt = LlmPromptBuilder.buildPackedEvaluationPrompt(sections, 20, 20, 30);
+                response = groqClient.getCompletion(LlmCallType.PACKED_EVALUATION, PACKED_SYSTEM_PROMPT, prompt, Math.min(1024 * sections.size(), 8192), 0.2);
+                logger.info("Packed LLM response for {} files, length = {}", sections.size(), response == null ? 0 : response.length());
+            } catch (Exception ex) {
+                // Provider failure (already retried): do not multiply the load with per-file calls
+                log.error("Packed evaluation of {} files failed", sections.size(), ex);
+                for (LlmPromptBuilder.FileSection section : sections) {
+                    results.put(section.filePath, errorResult(section.filePath, ex));
+                }
+                return results;
+            }
+            try {
+                Object files = JsonParser.parseEvaluation(LlmResponseParser.parseLlmResponse(response).jsonPart).get("files");
+                if (files instanceof Collection<?> col) {
+                    for (Object o : col) {
+                        if (o instanceof Map<?, ?> m && m.get("filePath") instanceof String fp) {
+                            answers.put(toRepoRelKey(fp), (Map<String, Object>) m);
+                        }
+                    }
+                }
+            } catch (Exception ex) {
+                log.warn("Packed response for {} files did not parse, evaluating individually: {}", sections.size(), ex.getMessage());
+            }
+        }
+
+        for (LlmPromptBuilder.FileSection section : sections) {
+            String path = section.filePath;
+            Map<String, Object> answer = answers.get(path);
+            if (answer == null) {
+                results.put(path, evaluateFile(path, nodes.get(path), context, repoRoot, submissionId, !plan.isContextChanged(path), listener));
+                continue;
+            }
+            try {
+                results.put(path, recordEvaluation(submissionId, path, answer, Objects.toString(answer.get("summary"), ""),
+                        nodes.get(path).getContentHash(), languages.get(path), PACKED_PROMPT_VERSION, listener));
+            } catch (Exception ex) {
+                log.error("Error recording packed result for {}", path, ex);
+                results.put(path, errorResult(path, ex));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Group small files into packs bounded by total chars and file count. Paths are visited in
+     * sorted order, so files of the same folder (and neighbouring folders) end up together.
+     */
+    private List<List<String>> packSmallFiles(SortedMap<String, FileNode> files) {
+        List<List<String>> packs = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int chars = 0;
+        for (Map.Entry<String, FileNode> e : files.entrySet()) {
+            int len = e.getValue().getContent().length();
+            if (!current.isEmpty() && (chars + len > packMaxChars || current.size() >= packMaxFiles)) {
+                packs.add(current);
+                current = new ArrayList<>();
+                chars = 0;
+            }
+            current.add(e.getKey());
+            chars += len;
+        }
+        if (!current.isEmpty()) packs.add(current);
+        return packs;
+    }
+
+    private String loadContent(String repoRelPath, FileNode fileNode, Path repoRoot) throws Exception {
+        String nodePath = fileNode.getPath();
+        String content = fileNode.getContent();
+        logger.info("Initial content for {} is {}", nodePath, (content == null ? "null" : "len=" + content.length()));
+        if (content == null) {
+            content = safeRead(repoRoot, repoRelPath, nodePath);
+            fileNode.setContent(content);
+            logger.info("Read content for {} via disk -> len={}", nodePath, (content == null ? 0 : content.length()));
+        }
+        return content == null ? "" : content;
+    }
 
+    // Cached evaluation for identical content, persisted for this submission; null on miss
+    private Map<String, List<IssueItem>> fromCache(Long submissionId, String repoRelPath, String contentHash, String language,
+                                                   String promptVersion, FileEvaluationListener listener) {
+        Optional<EvaluationCacheService.CachedEvaluation> cached =
+                evaluationCache.lookup(contentHash, language, promptVersion, groqClient.getModel());
+        if (cached.isEmpty()) return null;
+        logger.info("Evaluation cache hit for {}", repoRelPath);
+        Map<String, List<IssueItem>> issues = withFilePath(cached.get().getIssues(), repoRelPath);
+        saveFileEvaluation(submissionId, repoRelPath, cached.get().getSummary(), issues);
+        notifyListener(listener, repoRelPath, cached.get().getSummary());
+        return issues;
+    }
 
-            List<IssueItem> errorList = new ArrayList<>();
-            errorList.add(new IssueItem(
-                    "Failed to evaluate file: " + e.getMessage(),
-                    repoRelPath,
-                    null,
-                    null,
-                    null,
-                    IssueItem.IssueSeverity.ERROR
-            ));
+    // Persist, announce and cache one file's parsed evaluation
+    private Map<String, List<IssueItem>> recordEvaluation(Long submissionId, String repoRelPath, Map<String, Object> evaluation, String summary,
+                                                          String contentHash, String language, String promptVersion,
+                                                          FileEvaluationListener listener) {
+        LLMLogger.saveParsedEvaluationToFile(evaluation, repoRelPath);
+        Map<String, List<IssueItem>> issues = flattenIssuesWithCategories(evaluation, repoRelPath);
+        // A failed parse yields an empty map
+        return recordIssues(submissionId, repoRelPath, issues, summary, !evaluation.isEmpty(),
+                contentHash, language, promptVersion, listener);
+    }
 
-            Map<String, List<IssueItem>> errorMap = new HashMap<>();
-            errorMap.put("errors", errorList);  // Put errors under the "errors" category
+    private Map<String, List<IssueItem>> recordIssues(Long submissionId, String repoRelPath, Map<String, List<IssueItem>> issues, String summary,
+                                                      boolean parsed, String contentHash, String language, String promptVersion,
+                                                      FileEvaluationListener listener) {
+        // Issues are only kept when the response parsed, so a failed file is retried next submission
+        saveFileEvaluation(submissionId, repoRelPath, summary, parsed ? issues : null);
+        notifyListener(listener, repoRelPath, summary);
 
-            // You can add empty lists for other categories if needed:
-            errorMap.put("improvements", Collections.emptyList());
-            errorMap.put("thingsDoneRight", Collections.emptyList());
+        // Only cache responses that parsed
+        if (parsed) {
+            evaluationCache.store(contentHash, language, promptVersion, groqClient.getModel(), issues, summary);
+        }
+        return issues;
+    }
 
-            return errorMap;
+    private Map<String, List<IssueItem>> errorResult(String repoRelPath, Throwable e) {
+        List<IssueItem> errorList = new ArrayList<>();
+        errorList.add(new IssueItem(
+                "Failed to evaluate file: " + e.getMessage(),
+                repoRelPath,
+                null,
+                null,
+                null,
+                IssueItem.IssueSeverity.ERROR
+        ));
+
+        Map<String, List<IssueItem>> errorMap = new HashMap<>();
+        errorMap.put("errors", errorList);  // Put errors under the "errors" category
+
+        // You can add empty lists for other categories if needed:
+        errorMap.put("improvements", Collections.emptyList());
+        errorMap.put("thingsDoneRight", Collections.emptyList());
+
+        return errorMap;
+    }
+
+    private void saveFileEvaluation(Long submissionId, String repoRelPath, String summary, Map<String, List<IssueItem>> issues) {
+        if ((summary == null || summary.isEmpty()) && issues == null) return;
+        String issuesJson = null;
+        if (issues != null) {
+            try {
+                issuesJson = mapper.writeValueAsString(issues);
+            } catch (Exception e) {
+                logger.warn("Could not serialize issues for {}: {}", repoRelPath, e.getMessage());
+            }
         }
+        boolean saved = projectStorageService.saveFileEvaluation(submissionId, repoRelPath, summary, issuesJson);
 
+        if (!saved) {
+            // Handle save failure, logging, etc.
+            throw new RuntimeException("Failed to add summary to project files for submission " + submissionId);
+        }
+    }
+
+    private void notifyListener(FileEvaluationListener listener, String repoRelPath, String summary) {
+        try {
+            listener.onFileEvaluated(repoRelPath, summary);
+        } catch (Exception e) {
+            logger.warn("File evaluation listener failed for {}: {}", repoRelPath, e.getMessage());
+        }
+    }
 
+    // Cached issues may come from another submission's copy of the file: point them at this path
+    private Map<String, List<IssueItem>> withFilePath(Map<String, List<IssueItem>> issues, String repoRelPath) {
+        Map<String, List<IssueItem>> out = new LinkedHashMap<>();
+        for (Map.Entry<String, List<IssueItem>> e : issues.entrySet()) {
+            List<IssueItem> copies = new ArrayList<>();
+            for (IssueItem i : e.getValue()) {
+                copies.add(new IssueItem(i.getTitle(), repoRelPath, i.getLineStart(), i.getLineEnd(), i.getCodeSnippet(), i.getSeverity()));
+            }
+            out.put(e.getKey(), copies);
+        }
+        return out;
     }
 
     private String safeRead(Path repoRoot, String repoRelPath, String nodePath) throws Exception {
@@ -200,8 +625,6 @@ You are a code reviewer assistant. Please follow these instructions strictly:
         return s.substring(0, maxChars);
     }
 
-    private long estimateTokens(int chars) { return Math.max(1, chars / 4); }
-
     @SuppressWarnings("unchecked")
     private Map<String, List<IssueItem>> flattenIssuesWithCategories(Map<String, Object> evaluation, String filePath) {
         Map<String, List<IssueItem>> categorizedIssues = new LinkedHashMap<>();
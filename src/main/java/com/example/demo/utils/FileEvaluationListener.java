@@ -0,0 +1,14 @@
+package com.example.demo.utils;
+
+/**
+ * Callback from EvaluationService as soon as a file's evaluation produced its summary
+ * (LLM response, evaluation cache or reuse from a prior submission). Called on the worker thread;
+ * implementations must be quick and thread-safe.
+ */
+@FunctionalInterface
+public interface FileEvaluationListener {
+
+    FileEvaluationListener NONE = (repoRelPath, summary) -> {};
+
+    void onFileEvaluated(String repoRelPath, String summary);
+}
@@ -43,6 +43,12 @@ public class FileNode {
     @Getter @Setter
     private String content;
 
+    /**
+     * SHA-256 of the file content, computed once during the scan
+     */
+    @Getter @Setter
+    private String contentHash;
+
     /**
      * File summary generated during evaluation
      */
@@ -75,9 +81,9 @@ public class FileNode {
     }
 
     /**
-     * Add a child node to this directory node
+     * Add a child node to this directory node (safe to call from parallel scanner threads)
      */
-    public void addChild(FileNode childNode) {
+    public synchronized void addChild(FileNode childNode) {
         if (isFile) {
             throw new IllegalStateException("Cannot add children to a file node");
         }
@@ -2,6 +2,7 @@ package com.example.demo.utils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
@@ -18,6 +19,9 @@ public class FileUtil {
     // Maximum file size to process (1MB)
     private static final long MAX_FILE_SIZE = 1_000_000;
 
+    // Bytes inspected when sniffing text vs binary
+    private static final int SNIFF_BYTES = 1000;
+
     // Common binary file extensions to skip
     private static final Set<String> BINARY_EXTENSIONS = new HashSet<>(Arrays.asList(
             "jar", "war", "ear", "zip", "tar", "gz", "rar", "7z",
@@ -71,11 +75,31 @@ public class FileUtil {
             return false;
         }
 
+        Boolean byName = isTextByName(path);
+        if (byName != null) {
+            return byName;
+        }
+
+        // If MIME type detection fails, sniff the first few bytes only
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] head = in.readNBytes(SNIFF_BYTES);
+            return isTextContent(head, head.length);
+        } catch (IOException e) {
+            return false; // If we can't read the file, assume it's not text
+        }
+    }
+
+    /**
+     * Decide text vs binary from the extension and MIME probe only (no content read).
+     *
+     * @param path Path to the file
+     * @return TRUE/FALSE when the name is conclusive, or null when the content has to be sniffed
+     */
+    public static Boolean isTextByName(Path path) {
         String extension = getFileExtension(path.toString()).toLowerCase();
         if (BINARY_EXTENSIONS.contains(extension)) {
             return false;
         }
-
         try {
             String mime = Files.probeContentType(path);
             if (mime != null) {
@@ -84,48 +108,56 @@ public class FileUtil {
                         mime.equals("application/xml") ||
                         mime.equals("application/javascript");
             }
+        } catch (IOException ignored) {
+            // fall through to content sniffing
+        }
+        return null;
+    }
 
-            // If MIME type detection fails, try to read the first few bytes
-            byte[] bytes = Files.readAllBytes(path);
-            if (bytes.length == 0) {
-                return true; // Empty file, treat as text
+    /**
+     * Check whether already-read bytes look like text (BOM, binary signatures, control characters).
+     *
+     * @param bytes  file bytes (or a prefix of them)
+     * @param length number of valid bytes in the array
+     * @return true if the bytes are likely text
+     */
+    public static boolean isTextContent(byte[] bytes, int length) {
+        if (length == 0) {
+            return true; // Empty file, treat as text
+        }
+
+        // Check for common binary file signatures
+        if (length >= 4) {
+            // Check for UTF-8 BOM
+            if (bytes[0] == (byte)0xEF && bytes[1] == (byte)0xBB && bytes[2] == (byte)0xBF) {
+                return true;
             }
 
             // Check for common binary file signatures
-            if (bytes.length >= 4) {
-                // Check for UTF-8 BOM
-                if (bytes[0] == (byte)0xEF && bytes[1] == (byte)0xBB && bytes[2] == (byte)0xBF) {
-                    return true;
-                }
-
-                // Check for common binary file signatures
-                if (bytes[0] == 'P' && bytes[1] == 'K') {
-                    return false; // ZIP file
-                }
-
-                if (bytes[0] == (byte)0xFF && bytes[1] == (byte)0xD8) {
-                    return false; // JPEG
-                }
-
-                if (bytes[0] == (byte)0x89 && bytes[1] == 'P' && bytes[2] == 'N' && bytes[3] == 'G') {
-                    return false; // PNG
-                }
+            if (bytes[0] == 'P' && bytes[1] == 'K') {
+                return false; // ZIP file
             }
 
-            // Count control characters
-            int controlChars = 0;
-            for (int i = 0; i < Math.min(bytes.length, 1000); i++) {
-                if (bytes[i] < 0x09 || (bytes[i] > 0x0D && bytes[i] < 0x20 && bytes[i] != 0x1B)) {
-                    controlChars++;
-                }
+            if (bytes[0] == (byte)0xFF && bytes[1] == (byte)0xD8) {
+                return false; // JPEG
             }
 
-            // If more than 10% are control chars, likely binary
-            return controlChars <= Math.min(bytes.length, 1000) * 0.1;
+            if (bytes[0] == (byte)0x89 && bytes[1] == 'P' && bytes[2] == 'N' && bytes[3] == 'G') {
+                return false; // PNG
+            }
+        }
 
-        } catch (IOException e) {
-            return false; // If we can't read the file, assume it's not text
+        // Count control characters
+        int sample = Math.min(length, SNIFF_BYTES);
+        int controlChars = 0;
+        for (int i = 0; i < sample; i++) {
+            if (bytes[i] < 0x09 || (bytes[i] > 0x0D && bytes[i] < 0x20 && bytes[i] != 0x1B)) {
+                controlChars++;
+            }
         }
+
+        // If more than 10% are control chars, likely binary
+        return controlChars <= sample * 0.1;
     }
 
     /**
@@ -136,12 +168,19 @@ public class FileUtil {
      */
     public static boolean isFileTooLarge(Path path) {
         try {
-            return Files.size(path) > MAX_FILE_SIZE;
+            return isFileTooLarge(Files.size(path));
         } catch (IOException e) {
             return true; // If we can't determine size, assume it's too large
         }
     }
 
+    /**
+     * Check a size already known from the directory walk (avoids another stat call)
+     */
+    public static boolean isFileTooLarge(long sizeBytes) {
+        return sizeBytes > MAX_FILE_SIZE;
+    }
+
 
 
     /**
@@ -0,0 +1,38 @@
+package com.example.demo.utils;
+
+import com.google.genai.Client;
+import com.google.genai.types.GenerateContentResponse;
+
+/**
+ * Google Gemini through the google-genai SDK.
+ */
+public class GeminiLlmClient implements LlmClient {
+
+    private final Client genaiClient;
+    private final String model;
+
+    public GeminiLlmClient(Client genaiClient, String model) {
+        this.genaiClient = genaiClient;
+        this.model = model;
+    }
+
+    @Override
+    public String getModel() {
+        return model;
+    }
+
+    @Override
+    public String complete(LlmCallType type, String systemPrompt, String userPrompt, int maxTokens, double temperature) {
+        String combinedPrompt = "System: " + systemPrompt + "\n\nUser: " + userPrompt;
+        GenerateContentResponse response = genaiClient.models.generateContent(
+                model,
+                combinedPrompt,
+                null
+        );
+
+        if (response == null) {
+            throw new RuntimeException("API response missing content");
+        }
+        return response.text();
+    }
+}
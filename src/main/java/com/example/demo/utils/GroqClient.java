@@ -1,56 +1,338 @@
 package com.example.demo.utils;
 
-import com.google.genai.Client;
-import com.google.genai.types.GenerateContentResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Locale;
-import java.util.concurrent.ThreadLocalRandom;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Entry point for every LLM call: rate limiting, retries, hedging, deadlines and the circuit
+ * breaker around a single-attempt LlmClient (the configured provider).
+ */
 public class GroqClient {
     private static final Logger logger = LoggerFactory.getLogger(GroqClient.class);
-    private static final String MODEL = "gemini-2.5-flash";
 
-    private final Client genaiClient;
-    private final int maxRetries = 5;
+    private final LlmClient llmClient;
+    private final LlmRateLimiter rateLimiter;
+    // Shared across calls: while the provider is failing, attempts are rejected without being sent
+    private final CircuitBreaker circuitBreaker;
+    private final LlmCallPolicy policy;
 
-    // Accept the library Client (injected from AppConfig)
-    public GroqClient(Client genaiClient) {
-        this.genaiClient = genaiClient;
-        logger.info("GroqClient initialized with injected Client");
+    private final Map<LlmCallType, CallStats> stats = new EnumMap<>(LlmCallType.class);
+
+    // Rate-limit waits, backoff, hedges and deadlines are timers here, so no thread sleeps between attempts
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "llm-call-scheduler");
+        t.setDaemon(true);
+        return t;
+    });
+    // Provider calls are blocking; each attempt runs on its own virtual thread
+    private final ExecutorService callExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Accept the provider and the shared rate limiter (injected from AppConfig)
+    public GroqClient(LlmClient llmClient, LlmRateLimiter rateLimiter, CircuitBreaker circuitBreaker, LlmCallPolicy policy) {
+        this.llmClient = llmClient;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.policy = policy;
+        for (LlmCallType type : LlmCallType.values()) {
+            stats.put(type, new CallStats());
+        }
+        logger.info("GroqClient initialized with {} model {} ({})", llmClient.getClass().getSimpleName(), llmClient.getModel(), policy);
     }
 
-    public String getCompletion(String systemPrompt, String userPrompt, int maxTokens, double temperature) {
-        int attempt = 0;
-        while (true) {
-            attempt++;
-            try {
-                String combinedPrompt = "System: " + systemPrompt + "\n\nUser: " + userPrompt;
+    public String getModel() {
+        return llmClient.getModel();
+    }
 
-                GenerateContentResponse response = genaiClient.models.generateContent(
-                        MODEL,
-                        combinedPrompt,
-                        null
-                );
+    public Map<String, Long> getRateLimiterStats() {
+        return rateLimiter.getStats();
+    }
 
-                if (response != null) {
-                    return response.text();
-                }
+    public Map<String, Long> getCircuitBreakerStats() {
+        return circuitBreaker.getStats();
+    }
 
-                throw new RuntimeException("API response missing content");
-            } catch (Exception e) {
-                logger.warn("API call attempt {} failed: {}", attempt, e.getMessage());
-                if (attempt >= maxRetries) {
-                    throw new RuntimeException("API request failed after retries: " + e.getMessage(), e);
-                }
-                try {
-                    Thread.sleep(200L * attempt);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Interrupted during backoff", ie);
+    /**
+     * Per call type: attempt latency percentiles plus calls, retries, hedges, hedgeWins, timeouts, failures.
+     */
+    public Map<String, Map<String, Long>> getLatencyStats() {
+        Map<String, Map<String, Long>> out = new LinkedHashMap<>();
+        for (Map.Entry<LlmCallType, CallStats> e : stats.entrySet()) {
+            CallStats s = e.getValue();
+            if (s.calls.sum() == 0) continue;
+            Map<String, Long> m = new LinkedHashMap<>(s.latency.getStats());
+            m.put("calls", s.calls.sum());
+            m.put("retries", s.retries.sum());
+            m.put("hedges", s.hedges.sum());
+            m.put("hedgeWins", s.hedgeWins.sum());
+            m.put("timeouts", s.timeouts.sum());
+            m.put("failures", s.failures.sum());
+            out.put(e.getKey().name(), m);
+        }
+        return out;
+    }
+
+    /**
+     * Blocking variant of getCompletionAsync with the default deadline.
+     */
+    public String getCompletion(LlmCallType type, String systemPrompt, String userPrompt, int maxTokens, double temperature) {
+        CompletableFuture<String> call = getCompletionAsync(type, systemPrompt, userPrompt, maxTokens, temperature);
+        try {
+            return call.get();
+        } catch (InterruptedException ie) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for LLM response", ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            throw cause instanceof RuntimeException re ? re : new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+
+    public CompletableFuture<String> getCompletionAsync(LlmCallType type, String systemPrompt, String userPrompt,
+                                                       int maxTokens, double temperature) {
+        return getCompletionAsync(type, systemPrompt, userPrompt, maxTokens, temperature, policy.getDeadline());
+    }
+
+    /**
+     * Non-blocking completion with retries and optional hedging (see LlmCallPolicy).
+     *
+     * The returned future fails with a TimeoutException once the deadline (null = none) passes,
+     * covering rate-limit waits, attempts and backoff. Completing it in any way (answer, deadline,
+     * cancellation) stops pending retries and hedges and interrupts the attempts still in flight.
+     */
+    public CompletableFuture<String> getCompletionAsync(LlmCallType type, String systemPrompt, String userPrompt,
+                                                       int maxTokens, double temperature, Duration deadline) {
+        // Prompt plus the output budget, since providers count both against TPM
+        long estimatedTokens = LlmRateLimiter.estimateTokens(systemPrompt.length() + userPrompt.length()) + maxTokens;
+
+        long deadlineNanos = deadline == null ? Long.MAX_VALUE : System.nanoTime() + deadline.toNanos();
+        Call call = new Call(type, systemPrompt, userPrompt, maxTokens, temperature, estimatedTokens, deadlineNanos);
+        CallStats s = stats.get(type);
+        s.calls.increment();
+
+        if (deadline != null) {
+            call.track(scheduler.schedule(() -> fail(call,
+                    new TimeoutException(type + " call exceeded deadline of " + deadline.toMillis() + " ms")),
+                    deadline.toNanos(), TimeUnit.NANOSECONDS));
+        }
+        call.result.whenComplete((r, ex) -> {
+            call.cancelAll();
+            if (ex instanceof TimeoutException) {
+                s.timeouts.increment();
+            } else if (ex != null && !call.result.isCancelled()) {
+                s.failures.increment();
+            }
+        });
+
+        schedule(call, 1, false);
+        return call.result;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        callExecutor.shutdownNow();
+    }
+
+    // Every attempt (including retries and hedges) goes through the shared RPM/TPM budget
+    private void schedule(Call call, int attempt, boolean hedge) {
+        if (call.result.isDone()) return;
+        // Wait for the circuit to close before spending rate-limit budget
+        if (!circuitBreaker.isCallPermitted()) {
+            if (!hedge) waitForCircuit(call, attempt, circuitBreaker.remainingOpenNanos());
+            return;
+        }
+        long waitNanos = rateLimiter.reserve(call.estimatedTokens);
+        if (waitNanos > 0 && System.nanoTime() + waitNanos > call.deadlineNanos) {
+            if (!hedge) {
+                fail(call, new TimeoutException(
+                        "Rate limit wait of " + TimeUnit.NANOSECONDS.toMillis(waitNanos) + " ms exceeds the call deadline"));
+            }
+            return;
+        }
+        Runnable start = () -> {
+            if (call.result.isDone()) return;
+            int id = call.nextId();
+            call.track(id, callExecutor.submit(() -> run(call, attempt, hedge, id)));
+            if (attempt == 1 && !hedge) scheduleHedge(call);
+        };
+        if (waitNanos > 0) {
+            call.track(scheduler.schedule(start, waitNanos, TimeUnit.NANOSECONDS));
+        } else {
+            start.run();
+        }
+    }
+
+    private void scheduleHedge(Call call) {
+        if (!policy.isHedgeEnabled()) return;
+        CallStats s = stats.get(call.type);
+        if (s.latency.getCount() < policy.getHedgeMinSamples()) return;
+        long delayMs = Math.max(1, s.latency.percentile(policy.getHedgePercentile()));
+        call.track(scheduler.schedule(() -> {
+            if (call.result.isDone()) return;
+            // Budget: hedges may not exceed hedgeBudgetPercent of all calls of this type
+            if (s.hedges.sum() * 100 >= s.calls.sum() * policy.getHedgeBudgetPercent()) return;
+            s.hedges.increment();
+            logger.debug("Hedging {} call after {} ms", call.type, delayMs);
+            schedule(call, 1, true);
+        }, delayMs, TimeUnit.MILLISECONDS));
+    }
+
+    private void run(Call call, int attempt, boolean hedge, int id) {
+        if (call.result.isDone()) return;
+        if (!circuitBreaker.tryAcquire()) {
+            // Opened meanwhile, or all half-open trial slots are taken: back off and try again
+            if (!hedge) {
+                call.lastDelayMs = policy.nextBackoffMs(call.lastDelayMs);
+                long backoffNanos = TimeUnit.MILLISECONDS.toNanos(call.lastDelayMs);
+                waitForCircuit(call, attempt, Math.max(circuitBreaker.remainingOpenNanos(), backoffNanos));
+            }
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            String response = llmClient.complete(call.type, call.systemPrompt, call.userPrompt, call.maxTokens, call.temperature);
+            circuitBreaker.onSuccess();
+            CallStats s = stats.get(call.type);
+            s.latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            // Untrack first: completing runs dependent stages on this thread, which must not be interrupted
+            call.untrack(id);
+            if (call.result.complete(response) && hedge) {
+                s.hedgeWins.increment();
+            }
+        } catch (Exception e) {
+            // Settled while the request was running: a deadline that cut it off counts against the
+            // provider, cancellation or another attempt winning does not
+            if (call.result.isDone()) {
+                if (call.result.isCompletedExceptionally() && !call.result.isCancelled()
+                        && call.result.exceptionNow() instanceof TimeoutException) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.release();
                 }
+                return;
+            }
+
+            LlmErrorClassifier.Classification error = LlmErrorClassifier.classify(e);
+            // Throttling means the provider is up; only transient errors count against it
+            if (error.getKind() == LlmErrorClassifier.Kind.TRANSIENT) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.release();
+            }
+            logger.warn("API call attempt {}{} failed ({}): {}", attempt, hedge ? " (hedge)" : "", error.getKind(), e.getMessage());
+
+            // The primary attempt chain owns retries; a failed hedge is simply dropped
+            if (hedge) return;
+            if (!error.isRetryable()) {
+                call.result.completeExceptionally(new RuntimeException("API request failed (not retryable): " + e.getMessage(), e));
+                return;
+            }
+            if (attempt >= policy.getMaxAttempts()) {
+                call.result.completeExceptionally(new RuntimeException("API request failed after retries: " + e.getMessage(), e));
+                return;
             }
+
+            long delayMs = Math.max(policy.nextBackoffMs(call.lastDelayMs), error.getRetryAfterMs());
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs) > call.deadlineNanos) {
+                call.result.completeExceptionally(new RuntimeException(
+                        "API request failed, retry in " + delayMs + " ms would pass the deadline: " + e.getMessage(), e));
+                return;
+            }
+            call.lastDelayMs = delayMs;
+            stats.get(call.type).retries.increment();
+            call.track(scheduler.schedule(() -> schedule(call, attempt + 1, false), delayMs, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    // Re-run the same attempt once the circuit may let it through, unless that is past the deadline
+    private void waitForCircuit(Call call, int attempt, long waitNanos) {
+        if (System.nanoTime() + waitNanos > call.deadlineNanos) {
+            fail(call, new CircuitBreaker.OpenException(
+                    "LLM provider circuit is open for another " + TimeUnit.NANOSECONDS.toMillis(waitNanos)
+                            + " ms, past the call deadline"));
+            return;
+        }
+        call.track(scheduler.schedule(() -> schedule(call, attempt, false), Math.max(1, waitNanos), TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Fail a call from a timer or scheduling path. Dependent stages of the result (merging, DB
+     * writes, pipeline callbacks) run on the thread that completes it, so that must not be the
+     * shared scheduler thread.
+     */
+    private void fail(Call call, Throwable error) {
+        try {
+            callExecutor.execute(() -> call.result.completeExceptionally(error));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            call.result.completeExceptionally(error);
+        }
+    }
+
+    private static final class CallStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder calls = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder hedges = new LongAdder();
+        final LongAdder hedgeWins = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder failures = new LongAdder();
+    }
+
+    private static final class Call {
+        final LlmCallType type;
+        final String systemPrompt;
+        final String userPrompt;
+        final int maxTokens;
+        final double temperature;
+        final long estimatedTokens;
+        final long deadlineNanos;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        // Previous backoff, for decorrelated jitter (primary attempt chain only)
+        volatile long lastDelayMs;
+        // Timers and running attempts, cancelled once the result is settled
+        private final Map<Integer, Future<?>> tasks = new ConcurrentHashMap<>();
+        private final AtomicInteger ids = new AtomicInteger();
+
+        Call(LlmCallType type, String systemPrompt, String userPrompt, int maxTokens, double temperature,
+             long estimatedTokens, long deadlineNanos) {
+            this.type = type;
+            this.systemPrompt = systemPrompt;
+            this.userPrompt = userPrompt;
+            this.maxTokens = maxTokens;
+            this.temperature = temperature;
+            this.estimatedTokens = estimatedTokens;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        int nextId() {
+            return ids.incrementAndGet();
+        }
+
+        void track(Future<?> task) {
+            track(nextId(), task);
+        }
+
+        void track(int id, Future<?> task) {
+            tasks.put(id, task);
+            if (result.isDone()) task.cancel(true);
+        }
+
+        void untrack(int id) {
+            tasks.remove(id);
+        }
+
+        void cancelAll() {
+            tasks.values().forEach(t -> t.cancel(true));
+            tasks.clear();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package com.example.demo.utils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves import specifiers to repo-relative file paths against a RepoFileIndex, without
+ * touching the filesystem. One instance per analysis; safe to share between extraction threads.
+ *
+ * - Java: a.b.C -> a/b/C.java
+ * - Python: a.b -> a/b.py or a/b/__init__.py; relative (.a.b) from the importing file's directory
+ * - JS/TS: only ./, ../ and / specifiers; explicit extension, then common extensions, then
+ *   index files when the specifier is a directory
+ *
+ * Results are memoized per (language, directory, specifier); directory-independent specifiers
+ * (Java, absolute Python, /-rooted JS) share one entry across the whole repository.
+ */
+public final class ImportResolver {
+
+    private static final Set<String> JS_LIKE_EXTS = Set.of("js", "jsx", "ts", "tsx", "mjs", "cjs", "javascript");
+    private static final String[] JS_EXTENSIONS = { ".js", ".jsx", ".ts", ".tsx", ".json", ".css" };
+    private static final String[] JS_INDEX_FILES = { "index.js", "index.jsx", "index.ts", "index.tsx", "index.css" };
+
+    // ConcurrentHashMap cannot hold null, so unresolved specifiers are memoized as this value
+    private static final String UNRESOLVED = "";
+
+    private final RepoFileIndex index;
+    private final Map<String, String> memo = new ConcurrentHashMap<>();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ImportResolver(RepoFileIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * @param specifier the imported module as written in the source
+     * @param sourceExt lower-case extension of the importing file
+     * @param fromDir   repo-relative directory of the importing file ("" for the root)
+     * @return the imported file, or null when it is external or not in the repository
+     */
+    public String resolve(String specifier, String sourceExt, String fromDir) {
+        String spec = specifier.replace('\\', '/');
+        char family;
+        String dirKey;
+        if ("java".equals(sourceExt)) {
+            family = 'j';
+            dirKey = "";
+        } else if ("py".equals(sourceExt) || "python".equals(sourceExt)) {
+            family = 'p';
+            dirKey = spec.startsWith(".") ? fromDir : "";
+        } else if (JS_LIKE_EXTS.contains(sourceExt)) {
+            // external libs (react, express) => ignore
+            if (!(spec.startsWith("./") || spec.startsWith("../") || spec.startsWith("/"))) return null;
+            family = 's';
+            dirKey = spec.startsWith("/") ? "" : fromDir;
+        } else {
+            return null;
+        }
+
+        lookups.increment();
+        String resolved = memo.computeIfAbsent(family + dirKey + '\0' + spec, k -> {
+            misses.increment();
+            String r = switch (family) {
+                case 'j' -> resolveJava(spec);
+                case 'p' -> resolvePython(spec, dirKey);
+                default -> resolveJs(spec, dirKey);
+            };
+            return r == null ? UNRESOLVED : r;
+        });
+        return resolved.isEmpty() ? null : resolved;
+    }
+
+    /**
+     * lookups, memoHits, memoEntries.
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> m = new LinkedHashMap<>();
+        m.put("lookups", lookups.sum());
+        m.put("memoHits", lookups.sum() - misses.sum());
+        m.put("memoEntries", (long) memo.size());
+        return m;
+    }
+
+    private String resolveJava(String spec) {
+        String filePath = spec.replace('.', '/') + ".java";
+        return index.isFile(filePath) ? filePath : null;
+    }
+
+    private String resolvePython(String spec, String dir) {
+        String base;
+        if (spec.startsWith(".")) {
+            // Simplified: any number of leading dots is relative to the importing file's directory
+            int i = 0;
+            while (i < spec.length() && spec.charAt(i) == '.') i++;
+            String stripped = spec.substring(i);
+            if (stripped.isBlank()) return null;
+            base = normalize(dir, stripped.replace('.', '/'));
+        } else {
+            base = spec.replace('.', '/');
+        }
+        if (base == null || base.isEmpty()) return null;
+        if (index.isFile(base + ".py")) return base + ".py";
+        if (index.isFile(base + "/__init__.py")) return base + "/__init__.py";
+        return null;
+    }
+
+    private String resolveJs(String spec, String dir) {
+        String start = spec.startsWith("/") ? normalize("", spec.substring(1)) : normalize(dir, spec);
+        if (start == null) return null;
+
+        // explicit extension
+        if (hasKnownExplicitExtension(spec) && index.isFile(start)) return start;
+
+        // try common extensions
+        if (!start.isEmpty()) {
+            for (String ext : JS_EXTENSIONS) {
+                if (index.isFile(start + ext)) return start + ext;
+            }
+        }
+
+        // directory index files
+        if (index.isDirectory(start)) {
+            String prefix = start.isEmpty() ? "" : start + "/";
+            for (String idx : JS_INDEX_FILES) {
+                if (index.isFile(prefix + idx)) return prefix + idx;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasKnownExplicitExtension(String p) {
+        String lower = p.toLowerCase(Locale.ROOT);
+        for (String ext : JS_EXTENSIONS) {
+            if (lower.endsWith(ext)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Join dir and a relative path and fold "." and ".." segments; null when the result
+     * would leave the repository root.
+     */
+    static String normalize(String dir, String relative) {
+        Deque<String> segments = new ArrayDeque<>();
+        for (String part : (dir + "/" + relative).split("/")) {
+            if (part.isEmpty() || ".".equals(part)) continue;
+            if ("..".equals(part)) {
+                if (segments.isEmpty()) return null;
+                segments.removeLast();
+            } else {
+                segments.addLast(part);
+            }
+        }
+        return String.join("/", segments);
+    }
+}
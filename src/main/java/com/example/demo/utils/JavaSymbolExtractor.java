@@ -0,0 +1,87 @@
+package com.example.demo.utils;
+
+import com.example.demo.utils.SourceLexer.Kind;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Java: imports are fully qualified type names (static imports give their class, package
+ * wildcards are skipped); exports are public class, interface, enum, record and annotation types.
+ */
+@Component
+public class JavaSymbolExtractor implements SourceSymbolExtractor {
+
+    private static final Set<String> TYPE_MODIFIERS = Set.of("abstract", "final", "static", "sealed", "non", "strictfp");
+    private static final Set<String> TYPE_KEYWORDS = Set.of("class", "interface", "enum", "record");
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("java");
+    }
+
+    @Override
+    public Symbols extract(String content) {
+        Symbols out = new Symbols();
+        SourceLexer lx = new SourceLexer(content, SourceLexer.Syntax.JAVA);
+        for (Kind k = lx.next(); k != Kind.EOF; k = lx.next()) {
+            if (k != Kind.IDENT) continue;
+            if (lx.is("import")) {
+                readImport(lx, out);
+            } else if (lx.is("public")) {
+                readPublicType(lx, out);
+            }
+        }
+        return out;
+    }
+
+    private void readImport(SourceLexer lx, Symbols out) {
+        Kind k = lx.next();
+        boolean isStatic = lx.is("static");
+        if (isStatic) k = lx.next();
+
+        StringBuilder name = new StringBuilder();
+        boolean wildcard = false;
+        while (k == Kind.IDENT) {
+            name.append(lx.text());
+            k = lx.next();
+            if (!lx.is(".")) break;
+            k = lx.next();
+            if (lx.is("*")) {
+                wildcard = true;
+                k = lx.next();
+                break;
+            }
+            name.append('.');
+        }
+        if (!lx.is(";")) lx.pushBack();
+
+        String imported = name.toString();
+        if (isStatic) {
+            // import static a.b.C.member / a.b.C.* -> a.b.C
+            if (!wildcard) {
+                int dot = imported.lastIndexOf('.');
+                imported = dot < 0 ? "" : imported.substring(0, dot);
+            }
+        } else if (wildcard) {
+            // a whole package, not one file
+            return;
+        }
+        out.addImport(imported);
+    }
+
+    private void readPublicType(SourceLexer lx, Symbols out) {
+        Kind k = lx.next();
+        while ((k == Kind.IDENT && TYPE_MODIFIERS.contains(lx.text())) || lx.is("-")) {
+            k = lx.next();
+        }
+        if (lx.is("@")) k = lx.next();
+        if (k == Kind.IDENT && TYPE_KEYWORDS.contains(lx.text())) {
+            if (lx.next() == Kind.IDENT) {
+                out.addExport(lx.text());
+                return;
+            }
+        }
+        lx.pushBack();
+    }
+}
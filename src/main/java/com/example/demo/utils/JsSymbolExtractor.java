@@ -0,0 +1,263 @@
+package com.example.demo.utils;
+
+import com.example.demo.utils.SourceLexer.Kind;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * JavaScript / TypeScript.
+ *
+ * Imports: static imports, side-effect imports, import(), require() and export ... from.
+ * Exports: export declarations (function, class, const/let/var, interface, type, enum; "default"
+ * when the default export has no name), export lists (aliases win), exports.x = ...,
+ * module.exports.x = ... and module.exports = { keys } ("default" for any other value).
+ */
+@Component
+public class JsSymbolExtractor implements SourceSymbolExtractor {
+
+    // May sit between export and the declaration keyword
+    private static final Set<String> MODIFIERS = Set.of("declare", "abstract", "async");
+    private static final Set<String> NAMED_DECLARATIONS = Set.of("class", "interface", "enum", "namespace");
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("js", "jsx", "ts", "tsx", "mjs", "cjs");
+    }
+
+    @Override
+    public Symbols extract(String content) {
+        Symbols out = new Symbols();
+        SourceLexer lx = new SourceLexer(content, SourceLexer.Syntax.JS);
+        for (Kind k = lx.next(); k != Kind.EOF; k = lx.next()) {
+            // Member names (x.import, obj.require) are not keywords
+            if (k != Kind.IDENT || lx.afterDot()) continue;
+            switch (lx.text()) {
+                case "import" -> readImport(lx, out);
+                case "export" -> readExport(lx, out);
+                case "require" -> readCall(lx, out);
+                case "exports" -> readExportsMember(lx, out);
+                case "module" -> {
+                    if (lx.next() == Kind.PUNCT && lx.is(".") && lx.next() == Kind.IDENT && lx.is("exports")) {
+                        readModuleExports(lx, out);
+                    } else {
+                        lx.pushBack();
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return out;
+    }
+
+    private void readImport(SourceLexer lx, Symbols out) {
+        Kind k = lx.next();
+        if (k == Kind.STRING) {
+            // import './side-effect'
+            out.addImport(lx.text());
+            return;
+        }
+        if (lx.is("(")) {
+            lx.pushBack();
+            readCall(lx, out);
+            return;
+        }
+        // import a, { b as c }, * as d, type T from 'x'; stops at anything else (e.g. TS "import x = require(...)")
+        while (k == Kind.IDENT || lx.is("{") || lx.is("}") || lx.is(",") || lx.is("*")) {
+            if (lx.is("from")) {
+                k = lx.next();
+                if (k == Kind.STRING) {
+                    out.addImport(lx.text());
+                    return;
+                }
+                continue;
+            }
+            k = lx.next();
+        }
+        lx.pushBack();
+    }
+
+    // ('x') after import or require
+    private void readCall(SourceLexer lx, Symbols out) {
+        if (lx.next() != Kind.PUNCT || !lx.is("(")) {
+            lx.pushBack();
+            return;
+        }
+        if (lx.next() != Kind.STRING) {
+            lx.pushBack();
+            return;
+        }
+        String specifier = lx.text();
+        if (lx.next() == Kind.PUNCT && lx.is(")")) {
+            out.addImport(specifier);
+        } else {
+            lx.pushBack();
+        }
+    }
+
+    private void readExport(SourceLexer lx, Symbols out) {
+        Kind k = lx.next();
+        while (k == Kind.IDENT && MODIFIERS.contains(lx.text())) k = lx.next();
+
+        if (k == Kind.IDENT) {
+            switch (lx.text()) {
+                case "default" -> readDefault(lx, out);
+                case "function" -> {
+                    if (lx.next() == Kind.PUNCT && lx.is("*")) lx.next();
+                    addName(lx, out);
+                }
+                case "const", "let", "var" -> {
+                    // const enum E
+                    if (lx.next() == Kind.IDENT && lx.is("enum")) lx.next();
+                    addName(lx, out);
+                }
+                case "type" -> {
+                    if (lx.next() == Kind.PUNCT && lx.is("{")) {
+                        readExportList(lx, out);
+                    } else {
+                        addName(lx, out);
+                    }
+                }
+                default -> {
+                    if (NAMED_DECLARATIONS.contains(lx.text())) {
+                        lx.next();
+                        addName(lx, out);
+                    } else {
+                        lx.pushBack();
+                    }
+                }
+            }
+            return;
+        }
+        if (lx.is("{")) {
+            readExportList(lx, out);
+        } else if (lx.is("*")) {
+            // export * from 'x' / export * as ns from 'x'
+            if (lx.next() == Kind.IDENT && lx.is("as")) {
+                lx.next();
+                addName(lx, out);
+                lx.next();
+            }
+            readFrom(lx, out);
+        } else if (lx.is("=")) {
+            // TS: export = value
+            out.addExport("default");
+        } else {
+            lx.pushBack();
+        }
+    }
+
+    private void readDefault(SourceLexer lx, Symbols out) {
+        Kind k = lx.next();
+        while (k == Kind.IDENT && (lx.is("async") || lx.is("abstract"))) k = lx.next();
+        if (lx.is("function")) {
+            if (lx.next() == Kind.PUNCT && lx.is("*")) lx.next();
+        } else if (lx.is("class")) {
+            lx.next();
+        } else {
+            out.addExport("default");
+            lx.pushBack();
+            return;
+        }
+        if (lx.kind() == Kind.IDENT && !lx.is("extends") && !lx.is("implements")) {
+            out.addExport(lx.text());
+        } else {
+            out.addExport("default");
+            lx.pushBack();
+        }
+    }
+
+    // { a, b as c, type T } [from 'x'], starting after '{'; the exported name is the last one of each entry
+    private void readExportList(SourceLexer lx, Symbols out) {
+        String current = null;
+        for (Kind k = lx.next(); k != Kind.EOF; k = lx.next()) {
+            if (k == Kind.IDENT || k == Kind.STRING) {
+                current = lx.text();
+            } else if (lx.is(",")) {
+                out.addExport(current);
+                current = null;
+            } else if (lx.is("}")) {
+                out.addExport(current);
+                lx.next();
+                readFrom(lx, out);
+                return;
+            } else {
+                lx.pushBack();
+                return;
+            }
+        }
+    }
+
+    // Optional from 'x' at the current token (re-exports)
+    private void readFrom(SourceLexer lx, Symbols out) {
+        if (lx.kind() == Kind.IDENT && lx.is("from")) {
+            if (lx.next() == Kind.STRING) {
+                out.addImport(lx.text());
+                return;
+            }
+        }
+        lx.pushBack();
+    }
+
+    // exports.name = ...
+    private void readExportsMember(SourceLexer lx, Symbols out) {
+        if (lx.next() == Kind.PUNCT && lx.is(".") && lx.next() == Kind.IDENT) {
+            String name = lx.text();
+            if (lx.next() == Kind.PUNCT && lx.is("=")) {
+                out.addExport(name);
+                return;
+            }
+        }
+        lx.pushBack();
+    }
+
+    // After module.exports: = { keys } / = value / .name = ...
+    private void readModuleExports(SourceLexer lx, Symbols out) {
+        lx.next();
+        if (lx.is(".")) {
+            lx.pushBack();
+            readExportsMember(lx, out);
+            return;
+        }
+        if (!lx.is("=")) {
+            lx.pushBack();
+            return;
+        }
+        if (lx.next() == Kind.PUNCT && lx.is("{")) {
+            readObjectKeys(lx, out);
+        } else {
+            out.addExport("default");
+            lx.pushBack();
+        }
+    }
+
+    // Top-level keys of an object literal, starting after '{'
+    private void readObjectKeys(SourceLexer lx, Symbols out) {
+        int depth = 1;
+        boolean expectKey = true;
+        for (Kind k = lx.next(); k != Kind.EOF; k = lx.next()) {
+            if (lx.is("{") || lx.is("(") || lx.is("[")) {
+                depth++;
+            } else if (lx.is("}") || lx.is(")") || lx.is("]")) {
+                if (--depth == 0) return;
+            } else if (depth == 1 && lx.is(",")) {
+                expectKey = true;
+                continue;
+            }
+            if (expectKey && depth == 1 && (k == Kind.IDENT || k == Kind.STRING)) {
+                out.addExport(lx.text());
+            }
+            expectKey = false;
+        }
+    }
+
+    // The current token as an exported name, if it is an identifier
+    private void addName(SourceLexer lx, Symbols out) {
+        if (lx.kind() == Kind.IDENT) {
+            out.addExport(lx.text());
+        } else {
+            lx.pushBack();
+        }
+    }
+}
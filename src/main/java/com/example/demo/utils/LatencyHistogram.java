@@ -0,0 +1,90 @@
+package com.example.demo.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets (each ~20% wider than the previous,
+ * from 1 ms to ~20 min); percentiles are interpolated within a bucket.
+ */
+public final class LatencyHistogram {
+
+    private static final double GROWTH = 1.2;
+    private static final int BUCKETS = 80;
+    private static final long[] UPPER_BOUNDS_MS = new long[BUCKETS];
+
+    static {
+        double bound = 1;
+        for (int i = 0; i < BUCKETS; i++) {
+            UPPER_BOUNDS_MS[i] = (long) Math.ceil(bound);
+            bound *= GROWTH;
+        }
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    public void record(long millis) {
+        long ms = Math.max(0, millis);
+        counts.incrementAndGet(bucketOf(ms));
+        count.increment();
+        totalMillis.add(ms);
+        maxMillis.accumulateAndGet(ms, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Given percentile (0-100) in ms, interpolated within its bucket; 0 when empty.
+     */
+    public long percentile(double p) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, p)) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (seen + snapshot[i] >= rank) {
+                long lower = i == 0 ? 0 : UPPER_BOUNDS_MS[i - 1];
+                long value = lower + (UPPER_BOUNDS_MS[i] - lower) * (rank - seen) / snapshot[i];
+                return Math.min(value, maxMillis.get());
+            }
+            seen += snapshot[i];
+        }
+        return maxMillis.get();
+    }
+
+    /**
+     * count, p50Ms, p95Ms, p99Ms, maxMs, avgMs.
+     */
+    public Map<String, Long> getStats() {
+        long n = count.sum();
+        Map<String, Long> m = new LinkedHashMap<>();
+        m.put("count", n);
+        m.put("p50Ms", percentile(50));
+        m.put("p95Ms", percentile(95));
+        m.put("p99Ms", percentile(99));
+        m.put("maxMs", maxMillis.get());
+        m.put("avgMs", n == 0 ? 0 : totalMillis.sum() / n);
+        return m;
+    }
+
+    private static int bucketOf(long ms) {
+        for (int i = 0; i < BUCKETS; i++) {
+            if (ms <= UPPER_BOUNDS_MS[i]) return i;
+        }
+        return BUCKETS - 1;
+    }
+}
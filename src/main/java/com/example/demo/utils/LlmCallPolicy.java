@@ -0,0 +1,56 @@
+package com.example.demo.utils;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Deadline, retry and hedging settings for LLM calls (built in AppConfig).
+ *
+ * - deadline: per call, covering rate-limit waits, attempts and backoff (null = none).
+ * - Retries use decorrelated jitter: each delay is random in [baseDelay, 3 * previous delay],
+ *   capped at maxDelay; only retryable errors are retried (see LlmErrorClassifier).
+ * - Hedging: once an attempt runs past hedgePercentile of the observed latency for its call
+ *   type, a duplicate is sent and the first answer wins, for at most hedgeBudgetPercent of calls
+ *   and only after hedgeMinSamples observations.
+ */
+@Getter
+public final class LlmCallPolicy {
+
+    private final Duration deadline;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final int hedgeMinSamples;
+    private final int hedgeBudgetPercent;
+
+    public LlmCallPolicy(Duration deadline, int maxAttempts, long baseDelayMs, long maxDelayMs,
+                         boolean hedgeEnabled, double hedgePercentile, int hedgeMinSamples, int hedgeBudgetPercent) {
+        this.deadline = deadline;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = Math.max(1, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinSamples = Math.max(1, hedgeMinSamples);
+        this.hedgeBudgetPercent = Math.max(0, hedgeBudgetPercent);
+    }
+
+    /**
+     * Next decorrelated-jitter delay given the previous one (0 for the first retry).
+     */
+    public long nextBackoffMs(long previousDelayMs) {
+        long upper = Math.max(baseDelayMs, Math.min(maxDelayMs, previousDelayMs * 3));
+        return upper <= baseDelayMs ? baseDelayMs
+                : ThreadLocalRandom.current().nextLong(baseDelayMs, upper + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "deadline=" + deadline + ", maxAttempts=" + maxAttempts + ", backoff=" + baseDelayMs + ".." + maxDelayMs
+                + "ms, hedging=" + hedgeEnabled + " (p" + hedgePercentile + ", budget " + hedgeBudgetPercent + "%)";
+    }
+}
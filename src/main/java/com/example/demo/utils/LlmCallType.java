@@ -0,0 +1,12 @@
+package com.example.demo.utils;
+
+/**
+ * What an LLM call is for; latency and hedging statistics are kept per type.
+ */
+public enum LlmCallType {
+    FILE_EVALUATION,
+    PACKED_EVALUATION,
+    CHUNK_EVALUATION,
+    FOLDER_SUMMARY,
+    OVERALL_ASSESSMENT
+}
@@ -0,0 +1,22 @@
+package com.example.demo.utils;
+
+/**
+ * One LLM provider. Implementations make a single blocking attempt; retries, hedging, deadlines,
+ * rate limiting and the circuit breaker live in GroqClient, which every caller goes through.
+ *
+ * Selected with llm.provider (gemini, openai, stub) in AppConfig.
+ */
+public interface LlmClient {
+
+    /**
+     * Model name, also part of the evaluation and summary cache keys.
+     */
+    String getModel();
+
+    /**
+     * Send one request and return the response text. Must be interruptible: a cancelled call
+     * interrupts the thread running it. Provider HTTP errors should surface as the provider's
+     * exception or LlmHttpException so LlmErrorClassifier can tell retryable from fatal.
+     */
+    String complete(LlmCallType type, String systemPrompt, String userPrompt, int maxTokens, double temperature) throws Exception;
+}
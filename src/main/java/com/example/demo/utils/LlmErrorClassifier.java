@@ -0,0 +1,95 @@
+package com.example.demo.utils;
+
+import com.google.genai.errors.ApiException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decides whether a failed LLM attempt is worth retrying.
+ *
+ * - RATE_LIMITED: HTTP 429; retried no sooner than Retry-After (or the hint in the error body).
+ * - TRANSIENT: 408, 5xx, I/O errors and empty responses; retried with backoff.
+ * - FATAL: any other 4xx (bad request, auth, unknown model); retrying cannot help.
+ */
+public final class LlmErrorClassifier {
+
+    public enum Kind { RATE_LIMITED, TRANSIENT, FATAL }
+
+    // "Retry-After: 12", "retryDelay": "12s" (Gemini RetryInfo), "retry in 12.5s"
+    private static final Pattern RETRY_HINT = Pattern.compile(
+            "(?i)(?:retry-after\"?\\s*[:=]\\s*\"?|retryDelay\"?\\s*[:=]\\s*\"?|retry in\\s+)(\\d+(?:\\.\\d+)?)\\s*(ms|s)?");
+
+    private LlmErrorClassifier() {}
+
+    public static final class Classification {
+        private final Kind kind;
+        private final long retryAfterMs;
+
+        Classification(Kind kind, long retryAfterMs) {
+            this.kind = kind;
+            this.retryAfterMs = retryAfterMs;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public boolean isRetryable() {
+            return kind != Kind.FATAL;
+        }
+
+        /** Provider retry hint in ms, 0 when none was given. */
+        public long getRetryAfterMs() {
+            return retryAfterMs;
+        }
+    }
+
+    public static Classification classify(Throwable error) {
+        Throwable e = unwrap(error);
+        if (e instanceof ApiException api) {
+            return classifyStatus(api.code(), api.getMessage(), 0);
+        }
+        if (e instanceof LlmHttpException http) {
+            return classifyStatus(http.getStatus(), http.getMessage(), http.getRetryAfterMs());
+        }
+        if (e instanceof IOException || e.getCause() instanceof IOException) {
+            return new Classification(Kind.TRANSIENT, 0);
+        }
+        if (e instanceof IllegalArgumentException) {
+            return new Classification(Kind.FATAL, 0);
+        }
+        return new Classification(Kind.TRANSIENT, 0);
+    }
+
+    static Classification classifyStatus(int status, String message, long retryAfterMs) {
+        if (status == 429) {
+            return new Classification(Kind.RATE_LIMITED, retryAfterMs > 0 ? retryAfterMs : parseRetryHint(message));
+        }
+        if (status == 408 || status >= 500) {
+            return new Classification(Kind.TRANSIENT, retryAfterMs);
+        }
+        if (status >= 400) {
+            return new Classification(Kind.FATAL, 0);
+        }
+        return new Classification(Kind.TRANSIENT, 0);
+    }
+
+    static long parseRetryHint(String message) {
+        if (message == null) return 0;
+        Matcher m = RETRY_HINT.matcher(message);
+        if (!m.find()) return 0;
+        double value = Double.parseDouble(m.group(1));
+        return "ms".equalsIgnoreCase(m.group(2)) ? (long) value : (long) (value * 1000);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.utils;
+
+/**
+ * Non-2xx response from an HTTP-based LlmClient.
+ */
+public class LlmHttpException extends RuntimeException {
+
+    private final int status;
+    private final long retryAfterMs;
+
+    public LlmHttpException(int status, String message, long retryAfterMs) {
+        super("HTTP " + status + ": " + message);
+        this.status = status;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /** Retry-After in ms, 0 when the response had none. */
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -67,6 +67,90 @@ public final class LlmPromptBuilder {
 
         return sb.toString();
     }
+
+    /**
+     * Evaluation prompt for one part of a large file. Line numbers in the answer are relative to
+     * the part and shifted back by the caller.
+     */
+    public static String buildChunkEvaluationPrompt(String filePath,
+                                                    String language,
+                                                    String chunk,
+                                                    int part,
+                                                    int totalParts,
+                                                    int startLine,
+                                                    int endLine,
+                                                    Map<String, Object> fileContext) {
+        String prompt = buildEvaluationPrompt(filePath, language, chunk, fileContext, 20, 20, 30);
+        return "NOTE: this is part " + part + " of " + totalParts + " of the file (lines " + startLine + "-" + endLine
+                + "). Review only this part; other parts are reviewed separately.\n"
+                + "Report lineStart/lineEnd relative to this part (its first line is line 1).\n\n"
+                + prompt;
+    }
+
+    /**
+     * One file of a packed (multi-file) evaluation prompt.
+     */
+    public static final class FileSection {
+        final String filePath;
+        final String language;
+        final String content;
+        final Map<String, Object> fileContext;
+
+        public FileSection(String filePath, String language, String content, Map<String, Object> fileContext) {
+            this.filePath = filePath;
+            this.language = language;
+            this.content = content;
+            this.fileContext = fileContext;
+        }
+    }
+
+    /**
+     * Several small files reviewed in one request. The model must answer with one entry per file
+     * so the response can be split back into per-file results.
+     */
+    @SuppressWarnings("unchecked")
+    public static String buildPackedEvaluationPrompt(List<FileSection> files,
+                                                     int maxDeps,
+                                                     int maxDependents,
+                                                     int maxExports) {
+        StringBuilder sb = new StringBuilder(8192);
+
+        sb.append("You are a senior code reviewer. Analyze each of the following ").append(files.size())
+                .append(" files in the context of its repository.\n")
+                .append("Return strict JSON: { \"files\": [ { \"filePath\": string, \"errors\": [IssueItem], ")
+                .append("\"improvements\": [IssueItem], \"thingsDoneRight\": [IssueItem], \"summary\": string } ] }\n")
+                .append("IssueItem: { \"title\": string, \"filePath\": string, \"lineStart\": number|null, \"lineEnd\": number|null, \"severity\": \"INFO\"|\"WARN\"|\"ERROR\", \"codeSnippet\": string }\n")
+                .append("Give exactly one entry per file, with filePath copied verbatim. Line numbers are relative to that file, ")
+                .append("and codeSnippet is the exact code of that file between lineStart and lineEnd (inclusive).\n")
+                .append("summary: a brief description of the purpose and functionality of the file.\n\n");
+
+        sb.append("Review goals:\n")
+                .append("- Identify correctness/security issues and missing error handling.\n")
+                .append("- Point out performance and scalability issues.\n")
+                .append("- Suggest concrete, minimal improvements aligned with the codebase style.\n")
+                .append("- Use the dependency context to check for broken imports/exports or misuse.\n\n");
+
+        int i = 0;
+        for (FileSection f : files) {
+            Map<String, Object> ctx = f.fileContext != null ? f.fileContext : Map.of();
+            Set<String> taking = toLimitedSet((Collection<String>) ctx.getOrDefault("taking", Collections.emptySet()), maxDeps);
+            Set<String> dependents = toLimitedSet((Collection<String>) ctx.getOrDefault("dependents", Collections.emptySet()), maxDependents);
+            Set<String> calling = toLimitedSet((Collection<String>) ctx.getOrDefault("calling", Collections.emptySet()), maxExports);
+
+            sb.append("=== File ").append(++i).append(": ").append(f.filePath).append(" ===\n")
+                    .append("- language: ").append(nullToNA(f.language)).append('\n')
+                    .append("- taking: ").append(taking.isEmpty() ? "(none)" : String.join(", ", taking)).append('\n')
+                    .append("- dependents: ").append(dependents.isEmpty() ? "(none)" : String.join(", ", dependents)).append('\n')
+                    .append("- calling: ").append(calling.isEmpty() ? "(none)" : String.join(", ", calling)).append('\n')
+                    .append("```").append(languageTag(f.language)).append('\n')
+                    .append(f.content).append('\n')
+                    .append("```\n\n");
+        }
+
+        sb.append("Return only the JSON object. Do not add any commentary.\n");
+        return sb.toString();
+    }
+
     public static String buildSummaryPrompt(String filePath,
                                             String language,
                                             String content,
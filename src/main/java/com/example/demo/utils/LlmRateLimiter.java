@@ -0,0 +1,112 @@
+package com.example.demo.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free requests-per-minute + tokens-per-minute limiter shared by every LLM call.
+ *
+ * Each budget is a token bucket holding one minute of quota, implemented as GCRA: a single
+ * "theoretical arrival time" advanced with compareAndSet. A caller reserves its cost up front
+ * and sleeps for the returned delay, so callers are served in reservation (FIFO) order and
+ * nobody holds a lock while waiting. A limit <= 0 disables that budget.
+ */
+public final class LlmRateLimiter {
+
+    private final Bucket requests;
+    private final Bucket tokens;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder throttledCalls = new LongAdder();
+    private final LongAdder totalWaitMillis = new LongAdder();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+
+    public LlmRateLimiter(long requestsPerMinute, long tokensPerMinute) {
+        this.requests = new Bucket(requestsPerMinute);
+        this.tokens = new Bucket(tokensPerMinute);
+    }
+
+    /**
+     * Rough token estimate used for the TPM budget (~4 chars per token).
+     */
+    public static long estimateTokens(int chars) {
+        return Math.max(1, chars / 4);
+    }
+
+    /**
+     * Reserve one request and the given tokens without blocking.
+     *
+     * @return nanoseconds the caller must wait before issuing the request (0 = go now)
+     */
+    public long reserve(long estimatedTokens) {
+        long now = System.nanoTime();
+        long wait = Math.max(requests.reserve(1, now), tokens.reserve(estimatedTokens, now));
+        record(wait);
+        return wait;
+    }
+
+    /**
+     * Reserve and sleep until the request may be issued.
+     */
+    public void acquire(long estimatedTokens) throws InterruptedException {
+        long waitNanos = reserve(estimatedTokens);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Counters for progress.log: calls, throttledCalls, totalWaitMs, maxWaitMs, avgWaitMs (over throttled calls).
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> m = new LinkedHashMap<>();
+        long throttled = throttledCalls.sum();
+        long waited = totalWaitMillis.sum();
+        m.put("calls", calls.sum());
+        m.put("throttledCalls", throttled);
+        m.put("totalWaitMs", waited);
+        m.put("maxWaitMs", maxWaitMillis.get());
+        m.put("avgWaitMs", throttled == 0 ? 0 : waited / throttled);
+        return m;
+    }
+
+    private void record(long waitNanos) {
+        calls.increment();
+        if (waitNanos <= 0) return;
+        long ms = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        throttledCalls.increment();
+        totalWaitMillis.add(ms);
+        maxWaitMillis.accumulateAndGet(ms, Math::max);
+    }
+
+    private static final class Bucket {
+        private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+        private final long limitPerMinute;
+        private final double nanosPerUnit;
+        // Time at which the bucket would be empty again if no more reservations were made
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime() - WINDOW_NANOS);
+
+        Bucket(long limitPerMinute) {
+            this.limitPerMinute = limitPerMinute;
+            this.nanosPerUnit = limitPerMinute > 0 ? (double) WINDOW_NANOS / limitPerMinute : 0;
+        }
+
+        long reserve(long cost, long now) {
+            if (limitPerMinute <= 0) return 0;
+            // A single call larger than the whole budget can never fit; charge one full window
+            long units = Math.min(Math.max(cost, 1), limitPerMinute);
+            long increment = (long) Math.ceil(units * nanosPerUnit);
+            while (true) {
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now - WINDOW_NANOS) + increment;
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return Math.max(0, next - now);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.demo.utils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * JVM-wide executor for LLM-bound tasks, shared by all submissions in flight.
+ *
+ * Tasks spend nearly all their time waiting on the provider, so in "virtual" mode every task
+ * gets its own virtual thread and concurrency is governed only by the number of call slots
+ * (evaluation.concurrency). "fixed" mode keeps a platform thread pool of the same size.
+ *
+ * Slots are handed out by weighted fair queuing over submissions (start-time fair queuing): each
+ * submission has its own queue and a virtual clock advanced by 1/weight per task, and the next free
+ * slot goes to the submission that is furthest behind. A small repo submitted after a large one
+ * is therefore served alongside it instead of behind it. Submissions are registered with their
+ * size: up to llm.scheduler.small-repo-files files is the small lane (weight small-weight),
+ * anything else is the large lane. While a small-lane submission has queued tasks, the large lane
+ * is held to all but small-lane-slots slots; otherwise it may use every slot, so a lone large repo
+ * runs at full concurrency (a small task arriving then waits for the next large task to finish).
+ * Work without a registered submission (submissionId null or never registered) is treated as one
+ * large-lane flow. Once a submission is unregistered its queued tasks fail and new ones are
+ * rejected, so late work of a finished or timed-out submission cannot take slots.
+ *
+ * NOTE: a task holds its slot until it returns, so tasks must not block on other tasks.
+ */
+@Slf4j
+@Component
+public class LlmTaskExecutor {
+
+    private enum Lane { SMALL, LARGE }
+
+    // Unregistered submission ids remembered to reject late work
+    private static final int MAX_UNREGISTERED = 1024;
+
+    private final ExecutorService executor;
+    private final int maxConcurrent;
+    private final boolean virtualThreads;
+
+    private final int smallRepoFiles;
+    private final double smallWeight;
+    private final double largeWeight;
+    // Slots the large lane may use while small-lane work is queued
+    private final int largeLaneSlots;
+
+    // Guards everything below
+    private final Object lock = new Object();
+    private final Map<Long, Flow> flows = new HashMap<>();
+    private final Set<Long> unregistered = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > MAX_UNREGISTERED;
+        }
+    });
+    private double virtualTime;
+    private int running;
+    private int runningLarge;
+    private int queued;
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    public LlmTaskExecutor(@Value("${evaluation.executor.mode:virtual}") String mode,
+                           @Value("${evaluation.concurrency:8}") int maxConcurrent,
+                           @Value("${llm.scheduler.small-repo-files:200}") int smallRepoFiles,
+                           @Value("${llm.scheduler.small-weight:2}") double smallWeight,
+                           @Value("${llm.scheduler.large-weight:1}") double largeWeight,
+                           @Value("${llm.scheduler.small-lane-slots:2}") int smallLaneSlots) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.virtualThreads = !"fixed".equals(mode.trim().toLowerCase(Locale.ROOT));
+        this.executor = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(this.maxConcurrent);
+        this.smallRepoFiles = smallRepoFiles;
+        this.smallWeight = smallWeight > 0 ? smallWeight : 1;
+        this.largeWeight = largeWeight > 0 ? largeWeight : 1;
+        this.largeLaneSlots = Math.max(1, this.maxConcurrent - Math.max(0, smallLaneSlots));
+        log.info("LlmTaskExecutor initialized (mode={}, maxConcurrent={}, largeLaneSlots={}, smallRepoFiles={}, weights small={} large={})",
+                virtualThreads ? "virtual" : "fixed", this.maxConcurrent, largeLaneSlots, smallRepoFiles, this.smallWeight, this.largeWeight);
+    }
+
+    /**
+     * Place a submission in its lane before submitting its work; fileCount is the number of files
+     * that will actually be evaluated.
+     */
+    public void register(Long submissionId, int fileCount) {
+        if (submissionId == null) return;
+        Lane lane = fileCount <= smallRepoFiles ? Lane.SMALL : Lane.LARGE;
+        synchronized (lock) {
+            // A retried submission is accepted again
+            unregistered.remove(submissionId);
+            Flow flow = flows.computeIfAbsent(submissionId, id -> new Flow(id, lane, weightOf(lane)));
+            flow.lane = lane;
+            flow.weight = weightOf(lane);
+        }
+        log.info("Submission {} scheduled in the {} lane ({} files)", submissionId, lane, fileCount);
+    }
+
+    /**
+     * Forget a finished submission and return its queue-wait stats: lane, tasks, p50/p95/p99/max
+     * wait. Its queued tasks fail and later submits for it are rejected (RejectedExecutionException)
+     * until it is registered again; running tasks keep their slot until they return.
+     */
+    public Map<String, Object> unregister(Long submissionId) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (submissionId == null) return stats;
+        List<Task> dropped;
+        synchronized (lock) {
+            unregistered.add(submissionId);
+            Flow flow = flows.remove(submissionId);
+            if (flow == null) return stats;
+            stats.put("submissionId", submissionId);
+            stats.put("lane", flow.lane.name());
+            stats.put("tasks", flow.served);
+            stats.put("queueWait", flow.queueWait.getStats());
+            dropped = new ArrayList<>(flow.queue);
+            queued -= dropped.size();
+        }
+        // Outside the lock: dependent stages run inline
+        for (Task task : dropped) task.result.completeExceptionally(notRegistered(submissionId));
+        return stats;
+    }
+
+    /**
+     * Run a task for a submission once it gets a slot.
+     */
+    public <T> CompletableFuture<T> submit(Long submissionId, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(submissionId, new Task(result, slot -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                release(slot);
+            }
+        }));
+        return result;
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(null, task);
+    }
+
+    /**
+     * Start an asynchronous task for a submission once it gets a slot. The slot is held until the
+     * returned stage completes, so the thread is free while the call is in flight; cancelling
+     * the result cancels the stage.
+     */
+    public <T> CompletableFuture<T> submitAsync(Long submissionId, Supplier<? extends CompletionStage<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(submissionId, new Task(result, slot -> {
+            CompletionStage<T> stage;
+            try {
+                stage = task.get();
+            } catch (Throwable t) {
+                release(slot);
+                result.completeExceptionally(t);
+                return;
+            }
+            stage.whenComplete((value, ex) -> {
+                release(slot);
+                if (ex != null) {
+                    result.completeExceptionally(ex);
+                } else {
+                    result.complete(value);
+                }
+            });
+            result.whenComplete((value, ex) -> {
+                if (result.isCancelled()) stage.toCompletableFuture().cancel(true);
+            });
+        }));
+        return result;
+    }
+
+    public <T> CompletableFuture<T> submitAsync(Supplier<? extends CompletionStage<T>> task) {
+        return submitAsync(null, task);
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /** Tasks currently holding a slot. */
+    public int getInFlight() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    /** Tasks waiting for a slot. */
+    public int getWaiting() {
+        synchronized (lock) {
+            return queued;
+        }
+    }
+
+    /**
+     * Scheduler-wide: inFlight, inFlightLarge, waiting, submissions, queueWait percentiles.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        synchronized (lock) {
+            m.put("inFlight", running);
+            m.put("inFlightLarge", runningLarge);
+            m.put("waiting", queued);
+            m.put("submissions", flows.size());
+        }
+        m.put("queueWait", queueWait.getStats());
+        return m;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ---------------- scheduling ----------------
+
+    private void enqueue(Long submissionId, Task task) {
+        List<Runnable> start;
+        synchronized (lock) {
+            if (submissionId != null && unregistered.contains(submissionId)) {
+                start = null;
+            } else {
+                Flow flow = flows.computeIfAbsent(submissionId, id -> new Flow(id, Lane.LARGE, largeWeight));
+                if (flow.queue.isEmpty()) {
+                    // A flow that was idle rejoins at the current virtual time instead of using saved-up credit
+                    flow.virtualStart = Math.max(flow.virtualStart, virtualTime);
+                }
+                flow.queue.add(task);
+                queued++;
+                start = dispatchLocked();
+            }
+        }
+        if (start == null) {
+            task.result.completeExceptionally(notRegistered(submissionId));
+            return;
+        }
+        start.forEach(executor::execute);
+    }
+
+    private void release(Slot slot) {
+        List<Runnable> start;
+        synchronized (lock) {
+            running--;
+            if (slot.lane == Lane.LARGE) runningLarge--;
+            start = dispatchLocked();
+        }
+        start.forEach(executor::execute);
+    }
+
+    // Hand free slots to the eligible flows with the lowest virtual start time
+    private List<Runnable> dispatchLocked() {
+        List<Runnable> start = new ArrayList<>();
+        while (running < maxConcurrent) {
+            boolean smallWaiting = false;
+            for (Flow f : flows.values()) {
+                if (f.lane == Lane.SMALL && !f.queue.isEmpty()) {
+                    smallWaiting = true;
+                    break;
+                }
+            }
+            Flow next = null;
+            for (Flow f : flows.values()) {
+                if (f.queue.isEmpty()) continue;
+                if (f.lane == Lane.LARGE && smallWaiting && runningLarge >= largeLaneSlots) continue;
+                if (next == null || f.virtualStart < next.virtualStart) next = f;
+            }
+            if (next == null) break;
+
+            Task task = next.queue.poll();
+            queued--;
+            virtualTime = Math.max(virtualTime, next.virtualStart);
+            next.virtualStart += 1.0 / next.weight;
+            // Cancelled while queued: drop without using a slot
+            if (task.result.isDone()) continue;
+
+            long waitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.enqueuedAt);
+            next.queueWait.record(waitMs);
+            queueWait.record(waitMs);
+            next.served++;
+
+            Slot slot = new Slot(next.lane);
+            running++;
+            if (slot.lane == Lane.LARGE) runningLarge++;
+            start.add(() -> task.body.run(slot));
+        }
+        return start;
+    }
+
+    private static RejectedExecutionException notRegistered(Long submissionId) {
+        return new RejectedExecutionException("Submission " + submissionId + " is no longer registered");
+    }
+
+    private double weightOf(Lane lane) {
+        return lane == Lane.SMALL ? smallWeight : largeWeight;
+    }
+
+    private static final class Flow {
+        final Long submissionId;
+        final ArrayDeque<Task> queue = new ArrayDeque<>();
+        final LatencyHistogram queueWait = new LatencyHistogram();
+        Lane lane;
+        double weight;
+        double virtualStart;
+        long served;
+
+        Flow(Long submissionId, Lane lane, double weight) {
+            this.submissionId = submissionId;
+            this.lane = lane;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Task {
+        final CompletableFuture<?> result;
+        final TaskBody body;
+        final long enqueuedAt = System.nanoTime();
+
+        Task(CompletableFuture<?> result, TaskBody body) {
+            this.result = result;
+            this.body = body;
+        }
+    }
+
+    // The lane a running task was charged to, returned on release
+    private static final class Slot {
+        final Lane lane;
+
+        Slot(Lane lane) {
+            this.lane = lane;
+        }
+    }
+
+    @FunctionalInterface
+    private interface TaskBody {
+        void run(Slot slot);
+    }
+}
@@ -24,4 +24,23 @@ public interface NodeListener {
      * @param absolutePath       the absolute Path to the file on disk
      */
     void onFile(String relativePath, String parentRelativePath, Path absolutePath);
-}
\ No newline at end of file
+
+    /**
+     * Called when a file node is discovered and its content has already been read by the scan.
+     * Override to reuse the buffer instead of reading the file again.
+     *
+     * @param relativePath       the file path relative to repository root (no leading slash)
+     * @param parentRelativePath the parent folder's relative path
+     * @param absolutePath       the absolute Path to the file on disk
+     * @param scannedFile        the file content read once by RepositoryTreeBuilder
+     */
+    default void onFile(String relativePath, String parentRelativePath, Path absolutePath, ScannedFile scannedFile) {
+        onFile(relativePath, parentRelativePath, absolutePath);
+    }
+
+    /**
+     * Called once after the whole tree has been walked, so buffering listeners can flush.
+     */
+    default void onComplete() {
+    }
+}
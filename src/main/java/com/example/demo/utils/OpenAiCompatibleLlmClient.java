@@ -0,0 +1,78 @@
+package com.example.demo.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Any server speaking the OpenAI chat completions API (OpenAI, Groq, vLLM, Ollama, LM Studio...).
+ */
+public class OpenAiCompatibleLlmClient implements LlmClient {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final URI endpoint;
+    private final String apiKey;
+    private final String model;
+
+    public OpenAiCompatibleLlmClient(String baseUrl, String apiKey, String model) {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.endpoint = URI.create(base + "/chat/completions");
+        this.apiKey = apiKey;
+        this.model = model;
+    }
+
+    @Override
+    public String getModel() {
+        return model;
+    }
+
+    @Override
+    public String complete(LlmCallType type, String systemPrompt, String userPrompt, int maxTokens, double temperature) throws Exception {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("model", model);
+        body.put("max_tokens", maxTokens);
+        body.put("temperature", temperature);
+        body.putArray("messages")
+                .add(mapper.createObjectNode().put("role", "system").put("content", systemPrompt))
+                .add(mapper.createObjectNode().put("role", "user").put("content", userPrompt));
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(endpoint)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)));
+        if (apiKey != null && !apiKey.isBlank()) {
+            request.header("Authorization", "Bearer " + apiKey);
+        }
+
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new LlmHttpException(response.statusCode(), response.body(), retryAfterMs(response));
+        }
+
+        JsonNode content = mapper.readTree(response.body()).path("choices").path(0).path("message").path("content");
+        if (content.isMissingNode() || content.isNull()) {
+            throw new RuntimeException("API response missing content");
+        }
+        return content.asText();
+    }
+
+    // Retry-After in seconds (HTTP-date form is rare for LLM APIs and is ignored)
+    private static long retryAfterMs(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After").map(v -> {
+            try {
+                return (long) (Double.parseDouble(v.trim()) * 1000);
+            } catch (NumberFormatException e) {
+                return 0L;
+            }
+        }).orElse(0L);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.utils;
+
+import com.example.demo.utils.SourceLexer.Kind;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Python: imports are the modules of import / from-import statements ("from . import x" gives
+ * ".x"); exports are the names in __all__ when the module defines it, otherwise its top-level
+ * functions and classes.
+ */
+@Component
+public class PythonSymbolExtractor implements SourceSymbolExtractor {
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("py");
+    }
+
+    @Override
+    public Symbols extract(String content) {
+        Symbols out = new Symbols();
+        List<String> topLevel = new ArrayList<>();
+        List<String> all = null;
+
+        SourceLexer lx = new SourceLexer(content, SourceLexer.Syntax.PYTHON);
+        boolean afterSemicolon = false;
+        for (Kind k = lx.next(); k != Kind.EOF; k = lx.next()) {
+            boolean statementStart = lx.isLineStart() || afterSemicolon;
+            afterSemicolon = lx.is(";");
+            if (k != Kind.IDENT || !statementStart) continue;
+
+            boolean top = lx.isLineStart() && lx.getIndent() == 0;
+            switch (lx.text()) {
+                case "import" -> readImport(lx, out);
+                case "from" -> readFromImport(lx, out);
+                case "def", "class" -> readDefinition(lx, top ? topLevel : null);
+                case "async" -> {
+                    if (next(lx) && lx.is("def")) {
+                        readDefinition(lx, top ? topLevel : null);
+                    } else {
+                        lx.pushBack();
+                    }
+                }
+                case "__all__" -> {
+                    if (top) {
+                        if (all == null) all = new ArrayList<>();
+                        readAll(lx, all);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        for (String symbol : all != null ? all : topLevel) out.addExport(symbol);
+        return out;
+    }
+
+    // import a.b, c as d
+    private void readImport(SourceLexer lx, Symbols out) {
+        while (next(lx)) {
+            String module = dottedName(lx, "");
+            if (module.isEmpty()) break;
+            out.addImport(module);
+            if (lx.is("as") && next(lx)) next(lx);
+            if (!lx.is(",")) break;
+        }
+        lx.pushBack();
+    }
+
+    // from .a.b import x / from . import (x, y as z)
+    private void readFromImport(SourceLexer lx, Symbols out) {
+        StringBuilder dots = new StringBuilder();
+        while (next(lx) && lx.is(".")) dots.append('.');
+        String module = dottedName(lx, dots.toString());
+        if (!lx.is("import")) {
+            lx.pushBack();
+            return;
+        }
+        if (!module.equals(dots.toString())) {
+            out.addImport(module);
+            return;
+        }
+        // Only dots: each imported name is a module of that package
+        if (next(lx) && lx.is("(")) next(lx);
+        while (lx.kind() == Kind.IDENT && !lx.isLineStart()) {
+            out.addImport(module + lx.text());
+            if (next(lx) && lx.is("as") && next(lx)) next(lx);
+            if (!lx.is(",") || !next(lx)) break;
+        }
+        lx.pushBack();
+    }
+
+    private void readDefinition(SourceLexer lx, List<String> topLevel) {
+        if (next(lx) && lx.kind() == Kind.IDENT) {
+            if (topLevel != null) topLevel.add(lx.text());
+        } else {
+            lx.pushBack();
+        }
+    }
+
+    // __all__ = [...] / __all__ += (...)
+    private void readAll(SourceLexer lx, List<String> all) {
+        if (next(lx) && lx.is("+")) next(lx);
+        if (!lx.is("=") || !next(lx) || !(lx.is("[") || lx.is("("))) {
+            lx.pushBack();
+            return;
+        }
+        while (next(lx)) {
+            if (lx.kind() == Kind.STRING) {
+                all.add(lx.text());
+            } else if (!lx.is(",")) {
+                return;
+            }
+        }
+        lx.pushBack();
+    }
+
+    /**
+     * Reads IDENT ('.' IDENT)* starting at the current token, appended to prefix; leaves the
+     * token after the name current.
+     */
+    private String dottedName(SourceLexer lx, String prefix) {
+        StringBuilder name = new StringBuilder(prefix);
+        while (lx.kind() == Kind.IDENT && !lx.is("import") && !lx.isLineStart()) {
+            name.append(lx.text());
+            if (!next(lx) || !lx.is(".") || !next(lx)) break;
+            name.append('.');
+        }
+        return name.toString();
+    }
+
+    // Advance within the current statement; false at a new logical line or end of input
+    private static boolean next(SourceLexer lx) {
+        Kind k = lx.next();
+        return k != Kind.EOF && !lx.isLineStart();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.utils;
+
+import java.util.*;
+
+/**
+ * Immutable in-memory index of the files of one repository, used instead of probing the disk.
+ *
+ * Paths are repo-relative with '/' separators; the root directory is "". Every ancestor of an
+ * indexed file is a directory, with its direct children (file and directory names) in the
+ * order they were added.
+ */
+public final class RepoFileIndex {
+
+    private final Set<String> files;
+    private final Map<String, List<String>> children;
+
+    private RepoFileIndex(Set<String> files, Map<String, List<String>> children) {
+        this.files = files;
+        this.children = children;
+    }
+
+    public static RepoFileIndex of(Collection<String> relativePaths) {
+        Set<String> files = new HashSet<>(relativePaths.size() * 2);
+        Map<String, List<String>> children = new HashMap<>();
+        children.put("", new ArrayList<>());
+        for (String raw : relativePaths) {
+            String path = raw.replace('\\', '/');
+            if (path.isEmpty() || !files.add(path)) continue;
+
+            // Register the file with its parent, then each new directory with its own parent
+            String child = path;
+            int slash = child.lastIndexOf('/');
+            while (true) {
+                String parent = slash < 0 ? "" : child.substring(0, slash);
+                String name = child.substring(slash + 1);
+                List<String> siblings = children.get(parent);
+                boolean known = siblings != null;
+                if (!known) {
+                    siblings = new ArrayList<>();
+                    children.put(parent, siblings);
+                }
+                siblings.add(name);
+                if (known || parent.isEmpty()) break;
+                child = parent;
+                slash = child.lastIndexOf('/');
+            }
+        }
+        Map<String, List<String>> frozen = new HashMap<>(children.size() * 2);
+        children.forEach((dir, names) -> frozen.put(dir, List.copyOf(names)));
+        return new RepoFileIndex(Set.copyOf(files), frozen);
+    }
+
+    public boolean isFile(String path) {
+        return files.contains(path);
+    }
+
+    public boolean isDirectory(String path) {
+        return children.containsKey(path);
+    }
+
+    /** Names of the direct children of a directory; empty when it is not one. */
+    public List<String> childrenOf(String dir) {
+        return children.getOrDefault(dir, List.of());
+    }
+
+    public int fileCount() {
+        return files.size();
+    }
+
+    public int directoryCount() {
+        return children.size();
+    }
+}
@@ -6,9 +6,10 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Builds an in-memory tree representation of a repository and can optionally
@@ -37,26 +38,7 @@ public class RepositoryTreeBuilder {
      */
     public static RepositoryTree buildTree(Path repoPath, NodeListener listener) {
         try {
-            // Validate input path
-            if (repoPath == null) {
-                throw new IllegalArgumentException("repoPath is null");
-            }
-            String asString = repoPath.toString();
-            if (asString.startsWith("http://") || asString.startsWith("https://")
-                    || asString.matches("^[^@\\s]+@[^:\\s]+:.*$")) {
-                throw new IllegalArgumentException(
-                        "repoPath looks like a remote URL/reference (" + asString + "). " +
-                                "Clone the repository first and pass a local directory Path.");
-            }
-            if (!Files.exists(repoPath)) {
-                throw new NoSuchFileException(asString);
-            }
-            if (!Files.isDirectory(repoPath)) {
-                throw new NotDirectoryException(asString);
-            }
-
-            // Normalize root
-            Path root = repoPath.toRealPath(LinkOption.NOFOLLOW_LINKS);
+            Path root = resolveRoot(repoPath);
 
             // Create root node
             FileNode rootNode = new FileNode("", false, null);
@@ -102,7 +84,8 @@ public class RepositoryTreeBuilder {
 
                         @Override
                         public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                            if (shouldIgnoreFile(file)) {
+                            ScannedFile scanned = scanFile(file, attrs);
+                            if (scanned == null) {
                                 return FileVisitResult.CONTINUE;
                             }
                             Path parentDir = file.getParent();
@@ -114,6 +97,9 @@ public class RepositoryTreeBuilder {
                             String relativePath = normalize(root.relativize(file).toString());
                             String absolutePath = root.resolve(relativePath).toString();
                             FileNode fileNode = new FileNode(absolutePath, true, parentNode);
+                            fileNode.setContent(scanned.getContent());
+                            fileNode.setLineCount(scanned.getLineCount());
+                            fileNode.setContentHash(scanned.getSha256());
                             parentNode.addChild(fileNode);
 
                             // Notify listener
@@ -121,7 +107,8 @@ public class RepositoryTreeBuilder {
                                 String parentRel = normalize(root.relativize(parentDir).toString());
                                 listener.onFile(relativePath,
                                         parentRel.isEmpty() ? null : parentRel,
-                                        file);
+                                        file,
+                                        scanned);
                             }
                             return FileVisitResult.CONTINUE;
                         }
@@ -132,6 +119,58 @@ public class RepositoryTreeBuilder {
                             return FileVisitResult.CONTINUE;
                         }
                     });
+
+            if (listener != null) {
+                listener.onComplete();
+            }
+            return new RepositoryTree(rootNode);
+
+        } catch (IOException e) {
+            log.error("Error building repository tree", e);
+            throw new RuntimeException("Failed to build repository tree", e);
+        }
+    }
+
+    /**
+     * Build the same tree with a ForkJoin scan (one task per directory) and dispatch listener
+     * events asynchronously, so reading files and persisting them overlap.
+     *
+     * @param repoPath      Path to the repository root
+     * @param listener      NodeListener to receive folder/file events (may be null); invoked from a
+     *                      single dispatch thread in discovery order, so it need not be thread-safe
+     * @param parallelism   number of scanner threads
+     * @param queueCapacity max listener events buffered before scanner threads block
+     * @return Tree representation of the repository
+     */
+    public static RepositoryTree buildTreeParallel(Path repoPath, NodeListener listener, int parallelism, int queueCapacity) {
+        try {
+            Path root = resolveRoot(repoPath);
+
+            FileNode rootNode = new FileNode("", false, null);
+            AsyncNodeListener dispatcher = listener != null ? new AsyncNodeListener(listener, queueCapacity) : null;
+
+            Set<Path> visitedDirs = ConcurrentHashMap.newKeySet();
+            visitedDirs.add(root);
+
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+            boolean scanned = false;
+            try {
+                if (dispatcher != null) {
+                    dispatcher.onFolder("", null);
+                }
+                pool.invoke(new DirectoryScanTask(root, root, rootNode, dispatcher, visitedDirs));
+                scanned = true;
+            } finally {
+                pool.shutdown();
+                // A failed scan must still release the dispatch thread and its queued events
+                if (dispatcher != null && !scanned) {
+                    dispatcher.abort();
+                }
+            }
+
+            if (dispatcher != null) {
+                dispatcher.onComplete();
+            }
             return new RepositoryTree(rootNode);
 
         } catch (IOException e) {
@@ -140,6 +179,113 @@ public class RepositoryTreeBuilder {
         }
     }
 
+    /**
+     * Scans one directory: files are read and reported inline, subdirectories become forked tasks.
+     * Each task is the only writer of its own directory node.
+     */
+    private static final class DirectoryScanTask extends RecursiveAction {
+        private final Path root;
+        private final Path dir;
+        private final FileNode dirNode;
+        private final NodeListener listener;
+        private final Set<Path> visitedDirs;
+
+        DirectoryScanTask(Path root, Path dir, FileNode dirNode, NodeListener listener, Set<Path> visitedDirs) {
+            this.root = root;
+            this.dir = dir;
+            this.dirNode = dirNode;
+            this.listener = listener;
+            this.visitedDirs = visitedDirs;
+        }
+
+        @Override
+        protected void compute() {
+            List<Path> entries = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) entries.add(entry);
+            } catch (IOException e) {
+                log.warn("Failed to list directory: {}", dir, e);
+                return;
+            }
+            entries.sort(Comparator.comparing(p -> p.getFileName().toString()));
+
+            String dirRel = normalize(root.relativize(dir).toString());
+            List<DirectoryScanTask> subtasks = new ArrayList<>();
+
+            for (Path entry : entries) {
+                BasicFileAttributes attrs;
+                try {
+                    // follow links, like the sequential walk (FOLLOW_LINKS)
+                    attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    log.warn("Failed to visit file: {}", entry, e);
+                    continue;
+                }
+                String relativePath = normalize(root.relativize(entry).toString());
+
+                if (attrs.isDirectory()) {
+                    if (shouldIgnoreDirectory(entry) || !markVisited(entry)) {
+                        continue;
+                    }
+                    FileNode childDir = new FileNode(relativePath, false, dirNode);
+                    dirNode.addChild(childDir);
+                    if (listener != null) {
+                        listener.onFolder(relativePath, dirRel.isEmpty() ? null : dirRel);
+                    }
+                    subtasks.add(new DirectoryScanTask(root, entry, childDir, listener, visitedDirs));
+                } else if (attrs.isRegularFile()) {
+                    ScannedFile scanned = scanFile(entry, attrs);
+                    if (scanned == null) {
+                        continue;
+                    }
+                    FileNode fileNode = new FileNode(root.resolve(relativePath).toString(), true, dirNode);
+                    fileNode.setContent(scanned.getContent());
+                    fileNode.setLineCount(scanned.getLineCount());
+                    fileNode.setContentHash(scanned.getSha256());
+                    dirNode.addChild(fileNode);
+                    if (listener != null) {
+                        listener.onFile(relativePath, dirRel.isEmpty() ? null : dirRel, entry, scanned);
+                    }
+                }
+            }
+
+            invokeAll(subtasks);
+        }
+
+        // Guards against symlink cycles, which walkFileTree detects for the sequential scan
+        private boolean markVisited(Path entry) {
+            try {
+                return visitedDirs.add(entry.toRealPath());
+            } catch (IOException e) {
+                log.warn("Failed to resolve directory: {}", entry, e);
+                return false;
+            }
+        }
+    }
+
+    private static Path resolveRoot(Path repoPath) throws IOException {
+        // Validate input path
+        if (repoPath == null) {
+            throw new IllegalArgumentException("repoPath is null");
+        }
+        String asString = repoPath.toString();
+        if (asString.startsWith("http://") || asString.startsWith("https://")
+                || asString.matches("^[^@\\s]+@[^:\\s]+:.*$")) {
+            throw new IllegalArgumentException(
+                    "repoPath looks like a remote URL/reference (" + asString + "). " +
+                            "Clone the repository first and pass a local directory Path.");
+        }
+        if (!Files.exists(repoPath)) {
+            throw new NoSuchFileException(asString);
+        }
+        if (!Files.isDirectory(repoPath)) {
+            throw new NotDirectoryException(asString);
+        }
+
+        // Normalize root
+        return repoPath.toRealPath(LinkOption.NOFOLLOW_LINKS);
+    }
+
     private static String normalize(String path) {
         String p = path.replace('\\', '/');
         if (p.startsWith("./")) p = p.substring(2);
@@ -159,16 +305,34 @@ public class RepositoryTreeBuilder {
                 || dirName.equals("obj");
     }
 
-    private static boolean shouldIgnoreFile(Path file) {
+    /**
+     * Apply the ignore rules and read the file once.
+     *
+     * @return the scanned file, or null if the file should be skipped
+     */
+    private static ScannedFile scanFile(Path file, BasicFileAttributes attrs) {
         String fileName = file.getFileName() != null ? file.getFileName().toString() : "";
         if (fileName.startsWith(".")) {
-            return true;
+            return null;
+        }
+        if (FileUtil.isFileTooLarge(attrs.size())) {
+            return null;
+        }
+        boolean important = isImportantBinaryFile(fileName);
+        Boolean textByName = FileUtil.isTextByName(file);
+        if (Boolean.FALSE.equals(textByName) && !important) {
+            return null;
         }
-        if (FileUtil.isFileTooLarge(file)
-                || (!FileUtil.isTextFile(file) && !isImportantBinaryFile(fileName))) {
-            return true;
+        try {
+            ScannedFile scanned = ScannedFile.read(file);
+            if (textByName == null && !important && !scanned.isText()) {
+                return null;
+            }
+            return scanned;
+        } catch (IOException e) {
+            log.warn("Failed to read file: {}", file, e);
+            return null;
         }
-        return false;
     }
 
     private static boolean isImportantBinaryFile(String fileName) {
@@ -0,0 +1,98 @@
+package com.example.demo.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A file read from disk exactly once during the repository scan.
+ * The same buffer feeds text detection, hashing, line counting, dependency extraction
+ * and the content handed to the LLM stage.
+ *
+ * NOTE: plain value object, not a Spring bean.
+ */
+public final class ScannedFile {
+
+    private final byte[] bytes;
+    private String content;
+    private String sha256;
+    private int lineCount = -1;
+
+    private ScannedFile(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Read the whole file into memory (callers must have applied the size limit already).
+     */
+    public static ScannedFile read(Path file) throws IOException {
+        return new ScannedFile(Files.readAllBytes(file));
+    }
+
+    public int getSizeBytes() {
+        return bytes.length;
+    }
+
+    public boolean isText() {
+        return FileUtil.isTextContent(bytes, bytes.length);
+    }
+
+    /**
+     * UTF-8 content; malformed sequences are replaced rather than failing the whole file.
+     */
+    public String getContent() {
+        if (content == null) {
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            try {
+                content = decoder.decode(ByteBuffer.wrap(bytes)).toString();
+            } catch (Exception e) {
+                content = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return content;
+    }
+
+    /**
+     * SHA-256 of the whole file. Used as the evaluation cache key, for change detection and in
+     * folder fingerprints, so it must cover every byte.
+     */
+    public String getSha256() {
+        if (sha256 == null) {
+            try {
+                MessageDigest md = MessageDigest.getInstance("SHA-256");
+                md.update(bytes);
+                sha256 = HexFormat.of().formatHex(md.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+        return sha256;
+    }
+
+    /**
+     * Number of lines, counted on the raw bytes ('\n' is never part of a multi-byte UTF-8 sequence).
+     */
+    public int getLineCount() {
+        if (lineCount < 0) {
+            if (bytes.length == 0) {
+                lineCount = 0;
+            } else {
+                int count = 1;
+                for (byte b : bytes) {
+                    if (b == '\n') count++;
+                }
+                lineCount = count;
+            }
+        }
+        return lineCount;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits large source files into chunks at structural boundaries for parallel evaluation.
+ *
+ * A boundary is a line that starts a new block: not blank, not a closing bracket, and preceded
+ * by a blank line or by the end of a statement/block. When a chunk would exceed the budget it is
+ * cut at the least-indented boundary in its second half (top-level declarations before methods,
+ * methods before statements); without one it is cut at the last line that fits. A single line
+ * longer than the budget (e.g. minified code) is hard-split into chunks of at most maxChars that
+ * all start and end on that line. Line numbers are 1-based and preserved per chunk.
+ */
+public final class SourceChunker {
+
+    private SourceChunker() {}
+
+    public static final class Chunk {
+        private final int startLine;
+        private final int endLine;
+        private final String text;
+
+        Chunk(int startLine, int endLine, String text) {
+            this.startLine = startLine;
+            this.endLine = endLine;
+            this.text = text;
+        }
+
+        public int getStartLine() {
+            return startLine;
+        }
+
+        public int getEndLine() {
+            return endLine;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+
+    public static List<Chunk> split(String content, int maxChars) {
+        List<Chunk> chunks = new ArrayList<>();
+        if (content == null || content.isEmpty()) return chunks;
+
+        maxChars = Math.max(1, maxChars);
+        String[] lines = content.split("\n", -1);
+        int start = 0;
+        while (start < lines.length) {
+            if (lines[start].length() > maxChars) {
+                splitLine(lines[start], start + 1, maxChars, chunks);
+                start++;
+                continue;
+            }
+
+            // Extend until the budget is used up (always take at least one line)
+            int end = start;
+            int chars = lines[start].length() + 1;
+            while (end + 1 < lines.length && chars + lines[end + 1].length() + 1 <= maxChars) {
+                end++;
+                chars += lines[end].length() + 1;
+            }
+
+            if (end + 1 < lines.length) {
+                int cut = bestBoundary(lines, start, end);
+                if (cut > start) end = cut - 1;
+            }
+
+            chunks.add(new Chunk(start + 1, end + 1, String.join("\n", Arrays.copyOfRange(lines, start, end + 1))));
+            start = end + 1;
+        }
+        return chunks;
+    }
+
+    private static void splitLine(String line, int lineNumber, int maxChars, List<Chunk> chunks) {
+        int from = 0;
+        while (from < line.length()) {
+            int to = Math.min(line.length(), from + maxChars);
+            // Keep surrogate pairs together
+            if (to < line.length() && to - from > 1 && Character.isHighSurrogate(line.charAt(to - 1))) to--;
+            chunks.add(new Chunk(lineNumber, lineNumber, line.substring(from, to)));
+            from = to;
+        }
+    }
+
+    // Least-indented boundary line in the second half of (start, end + 1] (latest wins ties); -1 when none
+    private static int bestBoundary(String[] lines, int start, int end) {
+        int best = -1;
+        int bestIndent = Integer.MAX_VALUE;
+        for (int i = end + 1; i > start + (end - start) / 2; i--) {
+            if (!isBoundary(lines, i)) continue;
+            int indent = indentOf(lines[i]);
+            if (indent < bestIndent) {
+                best = i;
+                bestIndent = indent;
+                if (indent == 0) break;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isBoundary(String[] lines, int i) {
+        String line = lines[i];
+        String trimmed = line.trim();
+        if (trimmed.isEmpty()) return false;
+        char first = trimmed.charAt(0);
+        if (first == '}' || first == ')' || first == ']') return false;
+
+        String prev = i > 0 ? lines[i - 1].trim() : "";
+        return prev.isEmpty() || prev.endsWith("}") || prev.endsWith(";");
+    }
+
+    private static int indentOf(String line) {
+        int n = 0;
+        while (n < line.length() && Character.isWhitespace(line.charAt(n))) n++;
+        return n;
+    }
+}
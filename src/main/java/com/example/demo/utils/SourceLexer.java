@@ -0,0 +1,315 @@
+package com.example.demo.utils;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Minimal single-pass tokenizer shared by the SourceSymbolExtractor implementations.
+ *
+ * Emits identifiers, string literals (the text between the quotes, escapes left as written) and
+ * punctuation, one character per token except "=", "==", "===" and "=>". Whitespace, comments and
+ * numbers are skipped, and JS regex and template literals come out as single OTHER tokens, so
+ * every character is looked at a constant number of times. A quote or regex that is not closed
+ * on its line (e.g. an apostrophe in JSX text) ends at the newline instead of swallowing the file.
+ *
+ * Python: a token at the start of a logical line (not inside brackets, not after a backslash
+ * continuation) has isLineStart() set, with its indentation in getIndent().
+ */
+final class SourceLexer {
+
+    enum Syntax { JAVA, JS, PYTHON }
+
+    enum Kind { IDENT, STRING, PUNCT, OTHER, EOF }
+
+    // Keywords after which a JS '/' starts a regex rather than a division
+    private static final Set<String> REGEX_PRECEDING_KEYWORDS = Set.of(
+            "return", "typeof", "instanceof", "in", "of", "new", "delete", "void", "throw",
+            "case", "do", "else", "yield", "await");
+
+    private static final String[] ASCII = new String[128];
+
+    static {
+        for (int i = 0; i < ASCII.length; i++) ASCII[i] = String.valueOf((char) i);
+    }
+
+    private final String src;
+    private final int n;
+    private final Syntax syntax;
+    private int pos;
+
+    // Current token
+    private Kind kind;
+    private String text;
+    private boolean lineStart;
+    private int indent;
+    private boolean pushedBack;
+
+    // Token before the current one
+    private Kind prevKind;
+    private String prevText;
+
+    private boolean atLineStart = true;
+    private int lineBegin;
+    private int bracketDepth;
+
+    // JS template literals: brace depth at each open "${"
+    private int braceDepth;
+    private int[] templates = new int[4];
+    private int templateCount;
+
+    SourceLexer(String src, Syntax syntax) {
+        this.src = src;
+        this.n = src.length();
+        this.syntax = syntax;
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    String text() {
+        return text;
+    }
+
+    boolean is(String s) {
+        return kind != Kind.EOF && kind != Kind.STRING && s.equals(text);
+    }
+
+    boolean isLineStart() {
+        return lineStart;
+    }
+
+    int getIndent() {
+        return indent;
+    }
+
+    /** True when the current token directly follows a '.', i.e. it is a member name. */
+    boolean afterDot() {
+        return prevKind == Kind.PUNCT && ".".equals(prevText);
+    }
+
+    /** Make the next call to next() return the current token again. */
+    void pushBack() {
+        pushedBack = true;
+    }
+
+    Kind next() {
+        if (pushedBack) {
+            pushedBack = false;
+            return kind;
+        }
+        prevKind = kind;
+        prevText = text;
+
+        while (pos < n) {
+            char c = src.charAt(pos);
+            if (c == '\n') {
+                pos++;
+                lineBegin = pos;
+                if (syntax != Syntax.PYTHON || bracketDepth == 0) atLineStart = true;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pos++;
+                continue;
+            }
+            char d = pos + 1 < n ? src.charAt(pos + 1) : '\0';
+
+            if (syntax == Syntax.PYTHON) {
+                if (c == '#') {
+                    skipToEndOfLine();
+                    continue;
+                }
+                if (c == '\\') {
+                    // Explicit line joining: the next physical line continues this one
+                    pos++;
+                    if (pos < n && src.charAt(pos) == '\r') pos++;
+                    if (pos < n && src.charAt(pos) == '\n') pos++;
+                    lineBegin = pos;
+                    continue;
+                }
+            } else if (c == '/' && d == '/') {
+                skipToEndOfLine();
+                continue;
+            } else if (c == '/' && d == '*') {
+                int end = src.indexOf("*/", pos + 2);
+                pos = end < 0 ? n : end + 2;
+                continue;
+            }
+
+            int start = pos;
+            if (c == '"' || c == '\'') return string(start, start);
+            if (Character.isJavaIdentifierStart(c)) {
+                int i = pos + 1;
+                while (i < n && Character.isJavaIdentifierPart(src.charAt(i))) i++;
+                if (syntax == Syntax.PYTHON && i < n && isStringPrefix(start, i)
+                        && (src.charAt(i) == '"' || src.charAt(i) == '\'')) {
+                    pos = i;
+                    return string(start, i);
+                }
+                pos = i;
+                return emit(Kind.IDENT, src.substring(start, i), start);
+            }
+            if (Character.isDigit(c) || (c == '.' && Character.isDigit(d))) {
+                int i = pos + 1;
+                while (i < n && (Character.isJavaIdentifierPart(src.charAt(i)) || src.charAt(i) == '.')) i++;
+                pos = i;
+                return emit(Kind.OTHER, null, start);
+            }
+            if (syntax == Syntax.JS) {
+                if (c == '`') {
+                    pos++;
+                    template();
+                    return emit(Kind.OTHER, null, start);
+                }
+                if (c == '}' && templateCount > 0 && braceDepth == templates[templateCount - 1]) {
+                    // End of a "${...}" substitution: back inside the template
+                    templateCount--;
+                    pos++;
+                    template();
+                    return emit(Kind.OTHER, null, start);
+                }
+                if (c == '/' && regexAllowed()) {
+                    regex();
+                    return emit(Kind.OTHER, null, start);
+                }
+            }
+            return punct(c, start);
+        }
+        return emit(Kind.EOF, null, pos);
+    }
+
+    private Kind emit(Kind k, String t, int start) {
+        kind = k;
+        text = t;
+        lineStart = atLineStart;
+        indent = start - lineBegin;
+        atLineStart = false;
+        return k;
+    }
+
+    private Kind punct(char c, int start) {
+        pos++;
+        if (c == '=') {
+            while (pos < n && src.charAt(pos) == '=' && pos - start < 3) pos++;
+            if (pos - start == 1 && pos < n && src.charAt(pos) == '>') pos++;
+            if (pos - start > 1) return emit(Kind.PUNCT, src.substring(start, pos), start);
+        }
+        switch (c) {
+            case '(', '[' -> bracketDepth++;
+            case ')', ']' -> bracketDepth = Math.max(0, bracketDepth - 1);
+            case '{' -> {
+                bracketDepth++;
+                braceDepth++;
+            }
+            case '}' -> {
+                bracketDepth = Math.max(0, bracketDepth - 1);
+                braceDepth = Math.max(0, braceDepth - 1);
+            }
+            default -> {
+            }
+        }
+        return emit(Kind.PUNCT, c < ASCII.length ? ASCII[c] : String.valueOf(c), start);
+    }
+
+    // String literal whose opening quote is at quoteAt (start includes a Python prefix)
+    private Kind string(int start, int quoteAt) {
+        char q = src.charAt(quoteAt);
+        boolean triple = (syntax != Syntax.JS) && src.startsWith(q == '"' ? "\"\"\"" : "'''", quoteAt)
+                && (syntax == Syntax.PYTHON || q == '"');
+        int open = quoteAt + (triple ? 3 : 1);
+        int i = open;
+        int close = n;
+        while (i < n) {
+            char c = src.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (triple) {
+                if (c == q && src.startsWith(q == '"' ? "\"\"\"" : "'''", i)) {
+                    close = i;
+                    i += 3;
+                    break;
+                }
+            } else if (c == q) {
+                close = i;
+                i++;
+                break;
+            } else if (c == '\n') {
+                // Unterminated on this line
+                close = i;
+                break;
+            }
+            i++;
+        }
+        pos = Math.min(i, n);
+        return emit(Kind.STRING, src.substring(open, Math.min(close, n)), start);
+    }
+
+    // Template literal body from pos: up to and including the closing backtick, or up to an
+    // opening "${" (its closing brace resumes the template, see next())
+    private void template() {
+        while (pos < n) {
+            char c = src.charAt(pos);
+            if (c == '\\') {
+                pos += 2;
+            } else if (c == '`') {
+                pos++;
+                return;
+            } else if (c == '$' && pos + 1 < n && src.charAt(pos + 1) == '{') {
+                pos += 2;
+                if (templateCount == templates.length) templates = Arrays.copyOf(templates, templateCount * 2);
+                templates[templateCount++] = braceDepth;
+                return;
+            } else {
+                pos++;
+            }
+        }
+        pos = n;
+    }
+
+    private boolean regexAllowed() {
+        if (kind == null || kind == Kind.EOF) return true;
+        if (kind == Kind.PUNCT) return !(")".equals(text) || "]".equals(text) || "}".equals(text));
+        return kind == Kind.IDENT && REGEX_PRECEDING_KEYWORDS.contains(text);
+    }
+
+    private void regex() {
+        int i = pos + 1;
+        boolean inClass = false;
+        while (i < n) {
+            char c = src.charAt(i);
+            if (c == '\n') break;
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '/' && !inClass) {
+                i++;
+                while (i < n && Character.isJavaIdentifierPart(src.charAt(i))) i++;
+                break;
+            }
+            i++;
+        }
+        pos = Math.min(i, n);
+    }
+
+    private void skipToEndOfLine() {
+        int end = src.indexOf('\n', pos);
+        pos = end < 0 ? n : end;
+    }
+
+    // r, b, u, f and their two-letter combinations
+    private boolean isStringPrefix(int from, int to) {
+        if (to - from > 2) return false;
+        for (int i = from; i < to; i++) {
+            if ("rRbBuUfF".indexOf(src.charAt(i)) < 0) return false;
+        }
+        return true;
+    }
+}
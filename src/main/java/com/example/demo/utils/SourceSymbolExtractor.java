@@ -0,0 +1,47 @@
+package com.example.demo.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the imports and exports of one source file for DependencyCheckAnalyzer. One implementation
+ * per language family, registered as a Spring bean; the analyzer picks it by file extension.
+ *
+ * Implementations scan the content once (see SourceLexer), so text in comments and string
+ * literals is never mistaken for code, and must be stateless.
+ */
+public interface SourceSymbolExtractor {
+
+    /**
+     * Lower-case file extensions (without the dot) this extractor handles.
+     */
+    Set<String> getExtensions();
+
+    Symbols extract(String content);
+
+    /**
+     * Imported module specifiers as written (resolved later by ImportResolver) and exported
+     * symbol names, both in source order and possibly repeated.
+     */
+    final class Symbols {
+        private final List<String> imports = new ArrayList<>();
+        private final List<String> exports = new ArrayList<>();
+
+        public List<String> getImports() {
+            return imports;
+        }
+
+        public List<String> getExports() {
+            return exports;
+        }
+
+        void addImport(String specifier) {
+            if (specifier != null && !specifier.isBlank()) imports.add(specifier.trim());
+        }
+
+        void addExport(String symbol) {
+            if (symbol != null && !symbol.isBlank()) exports.add(symbol.trim());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in provider for load tests and offline runs: no network, no quota.
+ *
+ * - Latency is log-normal around latencyMedianMs (spread latencySigma).
+ * - errorRate of calls fail with HTTP errorStatus, so retries and the circuit breaker are exercised.
+ * - Responses are well-formed for each call type; a file <call_type>.txt (e.g. file_evaluation.txt)
+ *   in responsesDir replaces the generated response for that type.
+ *
+ * Outcomes are derived from the seed, the prompt and how often that prompt was seen, so a run is
+ * repeatable regardless of how calls interleave.
+ */
+@Slf4j
+public class StubLlmClient implements LlmClient {
+
+    private static final Pattern PACKED_FILE = Pattern.compile("(?m)^=== File \\d+: (.+) ===$");
+
+    private final long latencyMedianMs;
+    private final double latencySigma;
+    private final double errorRate;
+    private final int errorStatus;
+    private final long seed;
+    private final Map<LlmCallType, String> canned = new EnumMap<>(LlmCallType.class);
+    private final Map<Long, AtomicInteger> seen = new ConcurrentHashMap<>();
+
+    public StubLlmClient(long latencyMedianMs, double latencySigma, double errorRate, int errorStatus, long seed, String responsesDir) {
+        this.latencyMedianMs = Math.max(0, latencyMedianMs);
+        this.latencySigma = Math.max(0, latencySigma);
+        this.errorRate = Math.min(1, Math.max(0, errorRate));
+        this.errorStatus = errorStatus;
+        this.seed = seed;
+        loadCanned(responsesDir);
+        log.info("Stub LLM provider: median latency {} ms (sigma {}), error rate {} (HTTP {}), seed {}, canned responses for {}",
+                latencyMedianMs, latencySigma, errorRate, errorStatus, seed, canned.keySet());
+    }
+
+    @Override
+    public String getModel() {
+        return "stub";
+    }
+
+    @Override
+    public String complete(LlmCallType type, String systemPrompt, String userPrompt, int maxTokens, double temperature) throws Exception {
+        long key = seed * 31 + Objects.hash(type, systemPrompt, userPrompt);
+        int occurrence = seen.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        Random random = new Random(key * 1_000_003L + occurrence);
+
+        long latency = Math.round(latencyMedianMs * Math.exp(latencySigma * random.nextGaussian()));
+        Thread.sleep(latency);
+
+        if (random.nextDouble() < errorRate) {
+            throw new LlmHttpException(errorStatus, "stub error", errorStatus == 429 ? 1000 : 0);
+        }
+        String response = canned.get(type);
+        return response != null ? response : generate(type, userPrompt);
+    }
+
+    private String generate(LlmCallType type, String userPrompt) {
+        switch (type) {
+            case FILE_EVALUATION:
+            case CHUNK_EVALUATION:
+                return "{\"errors\": [], \"improvements\": [" + issue("") + "], \"thingsDoneRight\": []}\n"
+                        + "Stub summary: the file is responsible for its part of the repository.";
+            case PACKED_EVALUATION: {
+                StringBuilder sb = new StringBuilder("{\"files\": [");
+                Matcher m = PACKED_FILE.matcher(userPrompt);
+                boolean first = true;
+                while (m.find()) {
+                    String path = m.group(1).replace("\\", "\\\\").replace("\"", "\\\"");
+                    if (!first) sb.append(", ");
+                    first = false;
+                    sb.append("{\"filePath\": \"").append(path).append("\", \"errors\": [], \"improvements\": [")
+                            .append(issue(path)).append("], \"thingsDoneRight\": [], \"summary\": \"Stub summary of ")
+                            .append(path).append("\"}");
+                }
+                return sb.append("]}").toString();
+            }
+            case FOLDER_SUMMARY:
+                return "Stub summary of a folder described in " + userPrompt.length() + " characters.";
+            case OVERALL_ASSESSMENT:
+            default:
+                return "Yes, the stub provider assessed this repository.\n- The implementation could be improved by using a real provider.";
+        }
+    }
+
+    private static String issue(String filePath) {
+        return "{\"title\": \"Stub improvement\", \"filePath\": \"" + filePath
+                + "\", \"lineStart\": 1, \"lineEnd\": 1, \"severity\": \"INFO\", \"codeSnippet\": \"\"}";
+    }
+
+    private void loadCanned(String responsesDir) {
+        if (responsesDir == null || responsesDir.isBlank()) return;
+        for (LlmCallType type : LlmCallType.values()) {
+            Path file = Path.of(responsesDir, type.name().toLowerCase(Locale.ROOT) + ".txt");
+            try {
+                if (Files.isRegularFile(file)) canned.put(type, Files.readString(file, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                log.warn("Cannot read stub response {}: {}", file, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,40 +1,210 @@
 package com.example.demo.utils;
 
-import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Folder summaries keyed by a content fingerprint of the folder subtree (see SummaryService),
+ * so identical folders hit across submissions.
+ *
+ * - Memory tier: LRU bounded by total summary length (summary.cache.max-chars).
+ * - Disk tier (optional, summary.cache.disk-dir): one file per fingerprint, survives restarts.
+ * - Entries expire summary.cache.ttl-hours after they were written, in both tiers.
+ */
+@Slf4j
+@Component
 public class SummaryCache {
-    // Key format: submissionId + ":" + folderPath (e.g. "123:/src/utils")
-    private final Map<String, String> folderSummaries = new ConcurrentHashMap<>();
 
-    // Keyed by submissionId only for root summary
-    private final Map<Long, String> rootSummaries = new ConcurrentHashMap<>();
+    private static final long SWEEP_INTERVAL_MS = Duration.ofHours(1).toMillis();
+
+    private final boolean enabled;
+    private final long maxChars;
+    private final Duration ttl;
+    private final Path diskDir;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private volatile long nextSweepAtMs;
+
+    public SummaryCache(@Value("${summary.cache.enabled:true}") boolean enabled,
+                        @Value("${summary.cache.max-chars:4000000}") long maxChars,
+                        @Value("${summary.cache.ttl-hours:168}") long ttlHours,
+                        @Value("${summary.cache.disk-dir:}") String diskDir) {
+        this.enabled = enabled;
+        this.maxChars = Math.max(1, maxChars);
+        this.ttl = Duration.ofHours(Math.max(1, ttlHours));
+        this.diskDir = initDiskDir(diskDir);
+    }
+
+    public Optional<String> get(String fingerprint) {
+        if (!enabled || fingerprint == null) return Optional.empty();
+        long now = System.currentTimeMillis();
+
+        synchronized (memory) {
+            Entry e = memory.get(fingerprint);
+            if (e != null) {
+                if (now - e.createdAtMs > ttl.toMillis()) {
+                    removeLocked(fingerprint);
+                    expirations.incrementAndGet();
+                } else {
+                    memoryHits.incrementAndGet();
+                    return Optional.of(e.summary);
+                }
+            }
+        }
 
-    public void saveFolderSummary(Long submissionId, String folderPath, String summary) {
-        String key = submissionId + ":" + folderPath;
-        folderSummaries.put(key, summary);
+        Optional<String> fromDisk = readDisk(fingerprint, now);
+        if (fromDisk.isPresent()) {
+            diskHits.incrementAndGet();
+            return fromDisk;
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
     }
 
-    public Optional<String> getFolderSummary(Long submissionId, String folderPath) {
-        String key = submissionId + ":" + folderPath;
-        return Optional.ofNullable(folderSummaries.get(key));
+    public void put(String fingerprint, String summary) {
+        if (!enabled || fingerprint == null || summary == null || summary.isBlank()) return;
+        long now = System.currentTimeMillis();
+        remember(fingerprint, summary, now);
+        puts.incrementAndGet();
+        writeDisk(fingerprint, summary);
+        sweepDiskIfDue(now);
     }
 
-    public void saveRootSummary(Long submissionId, String summary) {
-        rootSummaries.put(submissionId, summary);
+    /**
+     * memoryHits, diskHits, misses, hitRatePercent, puts, evictions, expirations, entries, weightChars.
+     */
+    public Map<String, Long> getStats() {
+        long h = memoryHits.get() + diskHits.get();
+        long m = misses.get();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("diskHits", diskHits.get());
+        stats.put("misses", m);
+        stats.put("hitRatePercent", (h + m) == 0 ? 0 : (h * 100) / (h + m));
+        stats.put("puts", puts.get());
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        synchronized (memory) {
+            stats.put("entries", (long) memory.size());
+            stats.put("weightChars", weight);
+        }
+        return stats;
     }
 
-    public Optional<String> getRootSummary(Long submissionId) {
-        return Optional.ofNullable(rootSummaries.get(submissionId));
+    // ---------------- memory tier ----------------
+
+    private void remember(String fingerprint, String summary, long createdAtMs) {
+        // A single summary larger than the whole budget is simply not kept in memory
+        if (summary.length() > maxChars) return;
+        synchronized (memory) {
+            removeLocked(fingerprint);
+            memory.put(fingerprint, new Entry(summary, createdAtMs));
+            weight += summary.length();
+            Iterator<Map.Entry<String, Entry>> it = memory.entrySet().iterator();
+            while (weight > maxChars && it.hasNext()) {
+                Map.Entry<String, Entry> eldest = it.next();
+                weight -= eldest.getValue().summary.length();
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
     }
 
-    public void invalidateFolderSummary(Long submissionId, String folderPath) {
-        String key = submissionId + ":" + folderPath;
-        folderSummaries.remove(key);
+    private void removeLocked(String fingerprint) {
+        Entry old = memory.remove(fingerprint);
+        if (old != null) weight -= old.summary.length();
     }
 
-    public void invalidateRootSummary(Long submissionId) {
-        rootSummaries.remove(submissionId);
+    // ---------------- disk tier ----------------
+
+    private Optional<String> readDisk(String fingerprint, long now) {
+        if (diskDir == null) return Optional.empty();
+        Path file = diskDir.resolve(fingerprint + ".txt");
+        try {
+            if (!Files.exists(file)) return Optional.empty();
+            long createdAtMs = Files.getLastModifiedTime(file).toMillis();
+            if (now - createdAtMs > ttl.toMillis()) {
+                Files.deleteIfExists(file);
+                expirations.incrementAndGet();
+                return Optional.empty();
+            }
+            String summary = Files.readString(file, StandardCharsets.UTF_8);
+            remember(fingerprint, summary, createdAtMs);
+            return Optional.of(summary);
+        } catch (IOException e) {
+            log.warn("Summary cache read failed for {}: {}", fingerprint, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void writeDisk(String fingerprint, String summary) {
+        if (diskDir == null) return;
+        Path target = diskDir.resolve(fingerprint + ".txt");
+        try {
+            // Write-then-rename so readers never see a partial file
+            Path tmp = Files.createTempFile(diskDir, fingerprint, ".tmp");
+            Files.writeString(tmp, summary, StandardCharsets.UTF_8);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Summary cache write failed for {}: {}", fingerprint, e.getMessage());
+        }
+    }
+
+    private void sweepDiskIfDue(long now) {
+        if (diskDir == null || now < nextSweepAtMs) return;
+        nextSweepAtMs = now + SWEEP_INTERVAL_MS;
+        FileTime cutoff = FileTime.fromMillis(now - ttl.toMillis());
+        try (Stream<Path> files = Files.list(diskDir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(".txt")).forEach(p -> {
+                try {
+                    if (Files.getLastModifiedTime(p).compareTo(cutoff) < 0 && Files.deleteIfExists(p)) {
+                        expirations.incrementAndGet();
+                    }
+                } catch (IOException ignored) {
+                    // Removed concurrently
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Summary cache sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private static Path initDiskDir(String dir) {
+        if (dir == null || dir.isBlank()) return null;
+        try {
+            return Files.createDirectories(Path.of(dir));
+        } catch (IOException e) {
+            log.warn("Summary cache disk tier disabled, cannot create {}: {}", dir, e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class Entry {
+        final String summary;
+        final long createdAtMs;
+
+        Entry(String summary, long createdAtMs) {
+            this.summary = summary;
+            this.createdAtMs = createdAtMs;
+        }
     }
 }
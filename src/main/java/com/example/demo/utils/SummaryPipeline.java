@@ -0,0 +1,105 @@
+package com.example.demo.utils;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event-driven folder summarization for one submission, created by SummaryService.startPipeline.
+ *
+ * Every file gets a summary future that is completed as soon as its evaluation finishes
+ * (onFileSummary); a folder summary starts once all of its files and subfolders are done, and the
+ * root summary completes once the top folder is summarized. Files that are never evaluated
+ * must be released with expectOnly / completeFrom, otherwise their folders never start.
+ */
+public final class SummaryPipeline {
+
+    // folder path -> direct file paths
+    private final Map<String, List<String>> filesByFolder;
+    // file path -> content hash (may be missing)
+    private final Map<String, String> contentHashes;
+    // file path -> summary (blank when the file has none, empty when its evaluation failed)
+    private final Map<String, CompletableFuture<Optional<String>>> fileSummaries = new ConcurrentHashMap<>();
+    private CompletableFuture<String> rootSummary;
+
+    SummaryPipeline(Map<String, List<String>> filesByFolder, Map<String, String> contentHashes) {
+        this.filesByFolder = filesByFolder;
+        this.contentHashes = contentHashes;
+        for (List<String> files : filesByFolder.values()) {
+            for (String file : files) {
+                fileSummaries.put(file, new CompletableFuture<>());
+            }
+        }
+    }
+
+    /**
+     * Record a file's summary; unknown paths and repeated calls are ignored.
+     */
+    public void onFileSummary(String filePath, String summary) {
+        CompletableFuture<Optional<String>> f = fileSummaries.get(filePath);
+        if (f != null) f.complete(Optional.of(summary == null ? "" : summary));
+    }
+
+    /**
+     * Release files that are not being evaluated, and make sure every evaluated file is released
+     * once its evaluation future finishes even if no summary was reported (e.g. a failed call).
+     * Such a file counts as missing, which marks its folders partial; a blank summary does not.
+     */
+    public void expectOnly(Map<String, ? extends CompletableFuture<?>> evaluations) {
+        for (Map.Entry<String, CompletableFuture<Optional<String>>> e : fileSummaries.entrySet()) {
+            CompletableFuture<?> evaluation = evaluations.get(e.getKey());
+            if (evaluation == null) {
+                e.getValue().complete(Optional.of(""));
+            } else {
+                evaluation.whenComplete((r, ex) -> e.getValue().complete(Optional.empty()));
+            }
+        }
+    }
+
+    /**
+     * Complete every file from already stored summaries (non-streaming use); files missing from
+     * the map were never evaluated successfully and count as missing.
+     */
+    public void completeFrom(Map<String, String> summariesByPath) {
+        for (Map.Entry<String, CompletableFuture<Optional<String>>> e : fileSummaries.entrySet()) {
+            e.getValue().complete(Optional.ofNullable(summariesByPath.get(e.getKey())));
+        }
+    }
+
+    /**
+     * Abandon the submission's summaries (e.g. on timeout): files not yet summarized are cancelled,
+     * so folders still waiting on them never reach the LLM executor, and so is the root.
+     */
+    public void cancel() {
+        fileSummaries.values().forEach(f -> f.cancel(false));
+        if (rootSummary != null) rootSummary.cancel(false);
+    }
+
+    public CompletableFuture<String> getRootSummary() {
+        return rootSummary;
+    }
+
+    Set<String> getFolderPaths() {
+        return filesByFolder.keySet();
+    }
+
+    List<String> getFiles(String folderPath) {
+        return filesByFolder.getOrDefault(folderPath, List.of());
+    }
+
+    String getContentHash(String filePath) {
+        return contentHashes.get(filePath);
+    }
+
+    List<CompletableFuture<Optional<String>>> getFileSummaries(String folderPath) {
+        List<CompletableFuture<Optional<String>>> out = new ArrayList<>();
+        for (String file : filesByFolder.getOrDefault(folderPath, List.of())) {
+            out.add(fileSummaries.get(file));
+        }
+        return out;
+    }
+
+    void setRootSummary(CompletableFuture<String> rootSummary) {
+        this.rootSummary = rootSummary;
+    }
+}
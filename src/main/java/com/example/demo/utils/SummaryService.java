@@ -1,30 +1,34 @@
 package com.example.demo.utils;
 
-import com.example.demo.DbModels.Folder;
+import com.example.demo.DbModels.Dto.FolderFileProjection;
 import com.example.demo.DbModels.Project;
-import com.example.demo.DbModels.CodeFile;
-import com.example.demo.DbRepository.CodeFileRepository;
 import com.example.demo.DbService.Impl.ProjectService;
 import com.example.demo.DbService.Impl.ProjectStorageService;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class SummaryService {
 
-    private final SummaryCache summaryCache = new SummaryCache();
+    // Bump whenever the folder summary prompt changes so cached summaries are not reused
+    private static final String PROMPT_VERSION = "folder-v1";
+
+    private final SummaryCache summaryCache;
     private final GroqClient groqClient;  // Your LLM client
+    private final LlmTaskExecutor llmTaskExecutor;
     private final ProjectStorageService projectStorageService;
     private final ProjectService projectService;
 
-    private Map<String, String> fileSummaries = new HashMap<>();
-
-    public SummaryService(GroqClient groqClient, ProjectStorageService projectStorageService, ProjectService projectService) {
+    public SummaryService(GroqClient groqClient, LlmTaskExecutor llmTaskExecutor, SummaryCache summaryCache,
+                          ProjectStorageService projectStorageService, ProjectService projectService) {
         this.groqClient = groqClient;
+        this.summaryCache = summaryCache;
+        this.llmTaskExecutor = llmTaskExecutor;
         this.projectStorageService = projectStorageService;
         this.projectService = projectService;
     }
@@ -38,70 +42,216 @@ public class SummaryService {
             return false;
         }
 
-        Long projectId = project.get().getId();
+        // 2. Folders, files and stored summaries in one pass (two queries, independent of folder count)
+        Map<String, List<FolderFileProjection>> index = projectStorageService.getFolderFileIndex(project.get());
+        SummaryPipeline pipeline = startPipeline(project.get(), index);
 
-        // 2. Get all folders for this project
-        List<Folder> allFolders = projectStorageService.findAllFoldersByProjectId(projectId);
-
-        // 3. Get all file summaries once from DB
-        this.fileSummaries = projectStorageService.getAllFileSummariesBySubmissionId(submissionId);
+        // 3. Feed all stored file summaries at once (blank for evaluated files without one)
+        Map<String, String> fileSummaries = new HashMap<>();
+        index.values().forEach(files -> files.forEach(f -> {
+            if (Boolean.TRUE.equals(f.getEvaluated())) fileSummaries.put(f.getPath(), Objects.toString(f.getContextJson(), ""));
+        }));
 
         if (fileSummaries.isEmpty()) {
             System.out.println("[WARN] No file summaries found in DB for submissionId: " + submissionId);
-        } else {
-            fileSummaries.forEach((path, summary) -> {
-                System.out.println("[DEBUG] File: " + path + " | Summary length: " + (summary != null ? summary.length() : "null"));
-            });
         }
+        pipeline.completeFrom(fileSummaries);
 
-        // 4. Summarize all non-root folders first
-        Map<String, String> folderSummaries = new HashMap<>();
-
-        for (Folder folder : allFolders) {
-
-            List<String> folderFileSummaries = new ArrayList<>();
-            List<String> filesInFolder = projectStorageService.findAllFilespathsByFolderId(folder.getId());
+        // 4. Root summary is saved to the project by the pipeline
+        pipeline.getRootSummary().join();
+        return true;
+    }
 
-            for (String filePath : filesInFolder) {
-                String fileSummary = fileSummaries.getOrDefault(filePath, "");
-                if (!fileSummary.isBlank()) {
-                    folderFileSummaries.add(fileSummary);
+    /**
+     * Build the folder summary DAG for a project whose folders and files are already persisted.
+     * File summaries are fed in through the returned pipeline; the repo summary is saved to the
+     * project when the root completes.
+     */
+    public SummaryPipeline startPipeline(Project project) {
+        return startPipeline(project, projectStorageService.getFolderFileIndex(project));
+    }
 
-                }
+    private SummaryPipeline startPipeline(Project project, Map<String, List<FolderFileProjection>> index) {
+        Long submissionId = project.getSubmissionId();
+
+        // Direct files per folder
+        Map<String, List<String>> filesByFolder = new HashMap<>();
+        Map<String, String> contentHashes = new HashMap<>();
+        index.forEach((folderPath, files) -> {
+            List<String> paths = new ArrayList<>();
+            for (FolderFileProjection f : files) {
+                paths.add(f.getPath());
+                if (f.getContentHash() != null) contentHashes.put(f.getPath(), f.getContentHash());
             }
+            filesByFolder.put(folderPath, paths);
+        });
+
+        SummaryPipeline pipeline = new SummaryPipeline(filesByFolder, contentHashes);
+        pipeline.setRootSummary(summarizeTree(pipeline, submissionId).thenApply(rootSummary -> {
+            // Save root summary to project DB
+            projectService.saveRepoSummary(submissionId, rootSummary);
+
+            System.out.println("[INFO] Root summary saved for submissionId: " + submissionId);
+            return rootSummary;
+        }));
+        return pipeline;
+    }
 
+    /**
+     * Schedule folder summaries as a DAG: every folder summarizes its direct files plus the
+     * summaries of its subfolders, and starts as soon as those are done. Leaves run in parallel
+     * on the shared LLM executor, so latency grows with tree depth, not folder count.
+     *
+     * A folder whose files or subfolders are missing summaries (failed, timed-out or cancelled
+     * evaluations, failed folder calls) is partial: it is still summarized from what is there, but
+     * neither it nor any ancestor is cached, since the fingerprint stands for the complete content.
+     * A file that was reviewed but has a blank summary is simply left out.
+     *
+     * @return future of the root ("") folder summary
+     */
+    private CompletableFuture<String> summarizeTree(SummaryPipeline pipeline, Long submissionId) {
+        Set<String> paths = new HashSet<>(pipeline.getFolderPaths());
+        paths.add("");
+
+        Map<String, List<String>> childrenByFolder = new HashMap<>();
+        for (String path : paths) {
+            if (path.isEmpty()) continue;
+            childrenByFolder.computeIfAbsent(nearestAncestor(path, paths), k -> new ArrayList<>()).add(path);
+        }
 
-            // Get combined folder summary from LLM
-            String folderSummary = getSummaryForTexts(folderFileSummaries);
-            System.out.println(folderSummary);
-            folderSummaries.put(folder.getPath(), folderSummary);
-
-            // Save summary for debugging
-
-            // Cache folder summary (optional)
-            summaryCache.saveFolderSummary(submissionId, folder.getPath(), folderSummary);
+        // Deepest folders first so every child future exists before its parent is wired up
+        List<String> ordered = new ArrayList<>(paths);
+        ordered.sort(Comparator.comparingInt(SummaryService::depth).reversed().thenComparing(Comparator.naturalOrder()));
+
+        Map<String, CompletableFuture<FolderSummary>> summaries = new HashMap<>();
+        Map<String, String> fingerprints = new HashMap<>();
+        for (String path : ordered) {
+            List<String> children = childrenByFolder.getOrDefault(path, List.of());
+            String fingerprint = fingerprint(pipeline, path, children, fingerprints);
+            fingerprints.put(path, fingerprint);
+
+            // Identical subtree summarized before: no need to wait for this submission's files
+            Optional<String> cached = summaryCache.get(fingerprint);
+            if (cached.isPresent()) {
+                summaries.put(path, CompletableFuture.completedFuture(new FolderSummary(cached.get(), false)));
+                continue;
+            }
 
-            System.out.println("[INFO] Folder summary saved for path: " + folder.getPath());
+            // Direct files first, then subfolders
+            List<CompletableFuture<Optional<String>>> fileInputs = pipeline.getFileSummaries(path);
+            List<CompletableFuture<FolderSummary>> folderInputs = new ArrayList<>();
+            for (String child : children) {
+                folderInputs.add(summaries.get(child));
+            }
+            List<CompletableFuture<?>> all = new ArrayList<>(fileInputs);
+            all.addAll(folderInputs);
+            CompletableFuture<FolderSummary> summary = CompletableFuture
+                    .allOf(all.toArray(new CompletableFuture[0]))
+                    .thenCompose(v -> {
+                        List<String> texts = new ArrayList<>();
+                        boolean partial = false;
+                        for (CompletableFuture<Optional<String>> input : fileInputs) {
+                            Optional<String> s = input.join();
+                            if (s.isEmpty()) {
+                                partial = true;
+                            } else if (!s.get().isBlank()) {
+                                texts.add(s.get());
+                            }
+                        }
+                        for (CompletableFuture<FolderSummary> input : folderInputs) {
+                            FolderSummary s = input.join();
+                            partial |= s.partial;
+                            if (!s.text.isBlank()) texts.add(s.text);
+                        }
+                        return summarizeFolder(submissionId, path, fingerprint, texts, partial);
+                    });
+            summaries.put(path, summary);
         }
+        return summaries.get("").thenApply(s -> s.text);
+    }
 
-        // 5. Generate root summary aggregating all folder summaries + root files
-        List<String> allSummaries = new ArrayList<>(folderSummaries.values());
-
+    private CompletableFuture<FolderSummary> summarizeFolder(Long submissionId, String folderPath, String fingerprint,
+                                                             List<String> texts, boolean partial) {
+        if (texts.size() <= 1) {
+            // Nothing to combine (e.g. src/main/java chains): pass the single summary through
+            return CompletableFuture.completedFuture(new FolderSummary(texts.isEmpty() ? "" : texts.get(0), partial));
+        }
+        return llmTaskExecutor.submit(submissionId, () -> {
+                    String summary = getSummaryForTexts(texts);
+                    if (!partial) summaryCache.put(fingerprint, summary);
+                    return new FolderSummary(summary, partial);
+                })
+                .exceptionally(ex -> {
+                    System.err.println("[ERROR] Folder summary failed for path: " + folderPath + " - " + ex.getMessage());
+                    return new FolderSummary("", true);
+                });
+    }
 
-        String rootSummary = getSummaryForTexts(allSummaries);
-        summaryCache.saveRootSummary(submissionId, rootSummary);
+    /**
+     * Content fingerprint of a folder subtree: names + content hashes of its direct files and
+     * names + fingerprints of its subfolders, plus prompt version and model. Null when any file
+     * has no hash, in which case the folder is never cached.
+     */
+    private String fingerprint(SummaryPipeline pipeline, String folderPath, List<String> children, Map<String, String> fingerprints) {
+        List<String> parts = new ArrayList<>();
+        for (String file : pipeline.getFiles(folderPath)) {
+            String hash = pipeline.getContentHash(file);
+            if (hash == null) return null;
+            parts.add("f:" + lastSegment(file) + ":" + hash);
+        }
+        for (String child : children) {
+            String childFingerprint = fingerprints.get(child);
+            if (childFingerprint == null) return null;
+            parts.add("d:" + lastSegment(child) + ":" + childFingerprint);
+        }
+        Collections.sort(parts);
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update((PROMPT_VERSION + "|" + groqClient.getModel()).getBytes(StandardCharsets.UTF_8));
+            for (String part : parts) {
+                md.update((byte) '\n');
+                md.update(part.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 
-        // Save root summary to project DB
-        projectService.saveRepoSummary(submissionId,rootSummary);
+    private static String lastSegment(String path) {
+        int idx = path.lastIndexOf('/');
+        return idx < 0 ? path : path.substring(idx + 1);
+    }
 
-        System.out.println("[INFO] Root summary saved for submissionId: " + submissionId);
+    // Closest known ancestor folder ("" when none)
+    private static String nearestAncestor(String path, Set<String> known) {
+        String p = path;
+        while (true) {
+            int idx = p.lastIndexOf('/');
+            if (idx < 0) return "";
+            p = p.substring(0, idx);
+            if (known.contains(p)) return p;
+        }
+    }
 
-        return true;
+    private static int depth(String path) {
+        if (path.isEmpty()) return 0;
+        int d = 1;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') d++;
+        }
+        return d;
     }
 
-    // Fetch summary from map of summaries loaded from DB
-    private String getSummaryForFile(String filePath) {
-        return fileSummaries.getOrDefault(filePath, "");
+    // A folder's summary text, and whether any input behind it was missing
+    private static final class FolderSummary {
+        final String text;
+        final boolean partial;
+
+        FolderSummary(String text, boolean partial) {
+            this.text = text == null ? "" : text;
+            this.partial = partial;
+        }
     }
 
     // Call your LLM to combine multiple summaries into one
@@ -111,7 +261,7 @@ public class SummaryService {
         String combinedText = String.join("\n\n", texts);
         String prompt = "Combine the following summaries into a concise overall summary:\n\n";
 
-        return groqClient.getCompletion(prompt, combinedText, 1024, 0.3);
+        return groqClient.getCompletion(LlmCallType.FOLDER_SUMMARY, prompt, combinedText, 1024, 0.3);
     }
 
 
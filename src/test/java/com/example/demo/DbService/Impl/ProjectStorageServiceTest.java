@@ -0,0 +1,124 @@
+package com.example.demo.DbService.Impl;
+
+import com.example.demo.DbModels.Dto.FolderFileProjection;
+import com.example.demo.DbModels.Folder;
+import com.example.demo.DbModels.Project;
+import com.example.demo.DbRepository.CodeFileRepository;
+import com.example.demo.DbRepository.FolderRepository;
+import com.example.demo.DbRepository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ProjectStorageServiceTest {
+
+    private static final int FOLDERS = 2_000;
+    private static final int FILES_PER_FOLDER = 5;
+
+    private final FolderRepository folderRepository = mock(FolderRepository.class);
+    private final CodeFileRepository codeFileRepository = mock(CodeFileRepository.class);
+    private final ProjectRepository projectRepository = mock(ProjectRepository.class);
+    private final ProjectStorageService storage =
+            new ProjectStorageService(folderRepository, codeFileRepository, projectRepository);
+
+    private final Project project = new Project();
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        // Every 10th folder has no files of its own
+        List<Folder> folders = new ArrayList<>();
+        List<FolderFileProjection> rows = new ArrayList<>();
+        for (int i = 0; i < FOLDERS; i++) {
+            String folderPath = i == 0 ? "" : "pkg" + (i % 50) + "/dir" + i;
+            Folder folder = new Folder();
+            folder.setId((long) i + 1);
+            folder.setProject(project);
+            folder.setPath(folderPath);
+            folders.add(folder);
+            if (i % 10 == 9) continue;
+            for (int f = 0; f < FILES_PER_FOLDER; f++) {
+                String prefix = folderPath.isEmpty() ? "" : folderPath + "/";
+                rows.add(new Row(folderPath, prefix + "File" + f + ".java", "summary " + i + "/" + f, "hash" + i + "-" + f));
+            }
+        }
+        when(folderRepository.findByProject(project)).thenReturn(folders);
+        when(codeFileRepository.streamFolderFilesByProject(project))
+                .thenAnswer(inv -> rows.stream().onClose(() -> streamClosed.set(true)));
+    }
+
+    @Test
+    void folderFileIndexUsesTwoQueriesRegardlessOfFolderCount() {
+        Map<String, List<FolderFileProjection>> index = storage.getFolderFileIndex(project);
+
+        // One folder query and one streamed file query, no per-folder lookups
+        verify(folderRepository, times(1)).findByProject(project);
+        verify(codeFileRepository, times(1)).streamFolderFilesByProject(project);
+        verifyNoMoreInteractions(folderRepository, codeFileRepository, projectRepository);
+        assertThat(streamClosed).isTrue();
+
+        assertThat(index).hasSize(FOLDERS);
+        assertThat(index.values().stream().mapToInt(List::size).sum())
+                .isEqualTo(FOLDERS / 10 * 9 * FILES_PER_FOLDER);
+    }
+
+    @Test
+    void folderFileIndexGroupsFilesByTheirFolder() {
+        Map<String, List<FolderFileProjection>> index = storage.getFolderFileIndex(project);
+
+        assertThat(index.get("")).extracting(FolderFileProjection::getPath)
+                .containsExactly("File0.java", "File1.java", "File2.java", "File3.java", "File4.java");
+        assertThat(index.get("pkg1/dir1")).extracting(FolderFileProjection::getContextJson)
+                .containsExactly("summary 1/0", "summary 1/1", "summary 1/2", "summary 1/3", "summary 1/4");
+        // Folders without direct files are present with no entries
+        assertThat(index.get("pkg9/dir9")).isEmpty();
+        assertThat(index.get("pkg19/dir19")).isEmpty();
+    }
+
+    private static final class Row implements FolderFileProjection {
+        private final String folderPath;
+        private final String path;
+        private final String contextJson;
+        private final String contentHash;
+
+        Row(String folderPath, String path, String contextJson, String contentHash) {
+            this.folderPath = folderPath;
+            this.path = path;
+            this.contextJson = contextJson;
+            this.contentHash = contentHash;
+        }
+
+        @Override
+        public String getFolderPath() {
+            return folderPath;
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public String getContextJson() {
+            return contextJson;
+        }
+
+        @Override
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        @Override
+        public Boolean getEvaluated() {
+            return contextJson != null;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DependencyGraphTest {
+
+    @Test
+    void emptyGraph() {
+        DependencyGraph graph = DependencyGraph.empty();
+
+        assertThat(graph.size()).isZero();
+        assertThat(graph.edgeCount()).isZero();
+        assertThat(graph.idOf("a")).isEqualTo(-1);
+        assertThat(graph.targetsOf("a")).isEmpty();
+        assertThat(graph.getCycles()).isEmpty();
+        assertThat(graph.getStats()).containsEntry("files", 0).containsEntry("maxFanIn", 0);
+    }
+
+    @Test
+    void adjacencyInBothDirections() {
+        DependencyGraph graph = DependencyGraph.builder()
+                .addEdge("a", "b")
+                .addEdge("a", "c")
+                .addEdge("b", "c")
+                .build();
+        int a = graph.idOf("a");
+        int c = graph.idOf("c");
+
+        assertThat(graph.targetsOf("a")).containsExactly("b", "c");
+        assertThat(graph.sourcesOf("c")).containsExactlyInAnyOrder("a", "b");
+        assertThat(graph.sourcesOf("a")).isEmpty();
+        assertThat(graph.outDegree(a)).isEqualTo(2);
+        assertThat(graph.inDegree(c)).isEqualTo(2);
+        assertThat(graph.pathOf(graph.target(a, 1))).isEqualTo("c");
+        assertThat(graph.targetsOf("a")).contains("b").doesNotContain("a", "missing");
+        assertThat(graph.getStats())
+                .containsEntry("maxFanOut", 2).containsEntry("maxFanOutFile", "a")
+                .containsEntry("maxFanIn", 2).containsEntry("maxFanInFile", "c");
+    }
+
+    @Test
+    void duplicateEdgesAreDropped() {
+        DependencyGraph graph = DependencyGraph.builder()
+                .addEdge("a", "b")
+                .addEdge("a", "c")
+                .addEdge("a", "b")
+                .addEdge("a", "b")
+                .build();
+
+        assertThat(graph.edgeCount()).isEqualTo(2);
+        assertThat(graph.targetsOf("a")).containsExactly("b", "c");
+        assertThat(graph.sourcesOf("b")).containsExactly("a");
+        assertThat(graph.inDegree(graph.idOf("b"))).isEqualTo(1);
+    }
+
+    @Test
+    void selfLoopIsACycleOfOne() {
+        DependencyGraph graph = DependencyGraph.builder()
+                .addEdge("a", "a")
+                .addEdge("a", "b")
+                .build();
+        int a = graph.idOf("a");
+        int b = graph.idOf("b");
+
+        assertThat(graph.isInCycle(a)).isTrue();
+        assertThat(graph.isInCycle(b)).isFalse();
+        assertThat(graph.getCycles()).containsExactly(List.of("a"));
+        assertThat(graph.targetsOf("a")).containsExactly("a", "b");
+        assertThat(graph.sourcesOf("a")).containsExactly("a");
+        // A file on a cycle reaches itself
+        assertThat(members(graph, graph.reachableFrom(a))).containsExactlyInAnyOrder("a", "b");
+        assertThat(members(graph, graph.reachableFrom(b))).isEmpty();
+    }
+
+    @Test
+    void multiNodeComponents() {
+        // {a, b, c} and {d, e} are cycles, joined by c -> d; f hangs off e, g imports a
+        DependencyGraph graph = DependencyGraph.builder()
+                .addEdge("a", "b")
+                .addEdge("b", "c")
+                .addEdge("c", "a")
+                .addEdge("c", "d")
+                .addEdge("d", "e")
+                .addEdge("e", "d")
+                .addEdge("e", "f")
+                .addEdge("g", "a")
+                .build();
+
+        assertThat(graph.getCycles()).hasSize(2);
+        assertThat(graph.getCycles().get(0)).containsExactlyInAnyOrder("a", "b", "c");
+        assertThat(graph.getCycles().get(1)).containsExactlyInAnyOrder("d", "e");
+        assertThat(graph.componentOf(graph.idOf("a")))
+                .isEqualTo(graph.componentOf(graph.idOf("c")))
+                .isNotEqualTo(graph.componentOf(graph.idOf("d")));
+        assertThat(graph.isInCycle(graph.idOf("f"))).isFalse();
+        assertThat(graph.isInCycle(graph.idOf("g"))).isFalse();
+        assertThat(graph.getStats())
+                .containsEntry("cycles", 2)
+                .containsEntry("filesInCycles", 5)
+                .containsEntry("largestCycle", 3);
+
+        assertThat(members(graph, graph.reachableFrom(graph.idOf("b"))))
+                .containsExactlyInAnyOrder("a", "b", "c", "d", "e", "f");
+        assertThat(members(graph, graph.reachableTo(graph.idOf("d"))))
+                .containsExactlyInAnyOrder("a", "b", "c", "d", "e", "g");
+    }
+
+    @Test
+    void reachableToSeveralFiles() {
+        DependencyGraph graph = DependencyGraph.builder()
+                .addEdge("a", "x")
+                .addEdge("b", "y")
+                .addEdge("c", "a")
+                .addEdge("d", "d")
+                .build();
+        BitSet changed = new BitSet();
+        changed.set(graph.idOf("x"));
+        changed.set(graph.idOf("y"));
+
+        assertThat(members(graph, graph.reachableTo(changed))).containsExactlyInAnyOrder("a", "b", "c");
+    }
+
+    @Test
+    void deepChainDoesNotOverflowTheStack() {
+        int n = 200_000;
+        DependencyGraph.Builder builder = DependencyGraph.builder();
+        for (int i = 0; i < n - 1; i++) builder.addEdge("f" + i, "f" + (i + 1));
+        // Close the chain into one cycle through every file
+        builder.addEdge("f" + (n - 1), "f0");
+        DependencyGraph graph = builder.build();
+
+        assertThat(graph.size()).isEqualTo(n);
+        assertThat(graph.getCycles()).hasSize(1);
+        assertThat(graph.getCycles().get(0)).hasSize(n);
+        assertThat(graph.reachableFrom(graph.idOf("f0")).cardinality()).isEqualTo(n);
+        assertThat(graph.reachableTo(graph.idOf("f0")).cardinality()).isEqualTo(n);
+    }
+
+    @Test
+    void deepAcyclicChainHasNoCycles() {
+        int n = 200_000;
+        DependencyGraph.Builder builder = DependencyGraph.builder();
+        for (int i = 0; i < n - 1; i++) builder.addEdge("f" + i, "f" + (i + 1));
+        DependencyGraph graph = builder.build();
+
+        assertThat(graph.getCycles()).isEmpty();
+        assertThat(graph.reachableFrom(graph.idOf("f0")).cardinality()).isEqualTo(n - 1);
+        assertThat(graph.reachableTo(graph.idOf("f" + (n - 1))).cardinality()).isEqualTo(n - 1);
+    }
+
+    private static List<String> members(DependencyGraph graph, BitSet ids) {
+        return ids.stream().mapToObj(graph::pathOf).toList();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN = Duration.ofMillis(100);
+
+    // Opens at 50% failures over the last 4 attempts, once 4 are recorded; 2 trial calls
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 50, 4, 4, OPEN, 2);
+
+    @Test
+    void staysClosedUntilMinCallsAreRecorded() {
+        fail(3);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void staysClosedBelowTheFailureRate() {
+        fail(1);
+        succeed(3);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensAtTheFailureRateAndRejectsCalls() {
+        succeed(2);
+        fail(2);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThat(breaker.remainingOpenNanos()).isPositive().isLessThanOrEqualTo(OPEN.toNanos());
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getStats()).containsEntry("opened", 1L).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    void slidingWindowForgetsOldFailures() {
+        fail(1);
+        succeed(3);
+        // The failure falls out of the window, so one more is still 25%
+        succeed(1);
+        fail(1);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenAllowsTrialCallsAndClosesWhenAllSucceed() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN.toMillis() + 20);
+
+        assertThat(breaker.isCallPermitted()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getStats()).containsEntry("windowCalls", 0L).containsEntry("closed", 1L);
+    }
+
+    @Test
+    void halfOpenFailureOpensAgain() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN.toMillis() + 20);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getStats()).containsEntry("opened", 2L);
+    }
+
+    @Test
+    void releaseGivesBackATrialSlot() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN.toMillis() + 20);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.release();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    void releaseDoesNotCountTowardsTheFailureRate() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.release();
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getStats()).containsEntry("windowCalls", 0L);
+    }
+
+    private void open() {
+        fail(4);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+    }
+
+    private void succeed(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onSuccess();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GroqClientTest {
+
+    private static final LlmCallPolicy POLICY = new LlmCallPolicy(Duration.ofSeconds(20), 3, 10, 100, false, 0.95, 100, 5);
+
+    private GroqClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) client.shutdown();
+    }
+
+    @Test
+    void deadlineFailureRunsDependentsOffTheSchedulerThread() throws Exception {
+        client = new GroqClient(hangingProvider(), new LlmRateLimiter(0, 0), closedBreaker(), POLICY);
+
+        CompletableFuture<String> dependentThread = client
+                .getCompletionAsync(LlmCallType.FILE_EVALUATION, "s", "u", 10, 0, Duration.ofMillis(50))
+                .handle((r, ex) -> (ex instanceof TimeoutException ? "timeout on " : "other on ") + Thread.currentThread().getName());
+
+        assertThat(dependentThread.get(5, TimeUnit.SECONDS))
+                .startsWith("timeout on ")
+                .doesNotContain("llm-call-scheduler");
+    }
+
+    @Test
+    void openCircuitFailureRunsDependentsOffTheSchedulerThread() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 50, 2, 2, Duration.ofMinutes(1), 1);
+        for (int i = 0; i < 2; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+        client = new GroqClient(hangingProvider(), new LlmRateLimiter(0, 0), breaker, POLICY);
+
+        CompletableFuture<String> dependentThread = client
+                .getCompletionAsync(LlmCallType.FILE_EVALUATION, "s", "u", 10, 0, Duration.ofMillis(50))
+                .handle((r, ex) -> (ex instanceof CircuitBreaker.OpenException ? "open on " : "other on ") + Thread.currentThread().getName());
+
+        assertThat(dependentThread.get(5, TimeUnit.SECONDS))
+                .startsWith("open on ")
+                .doesNotContain("llm-call-scheduler");
+    }
+
+    private static CircuitBreaker closedBreaker() {
+        return new CircuitBreaker("test", 50, 20, 10, Duration.ofSeconds(30), 2);
+    }
+
+    private static LlmClient hangingProvider() {
+        return new LlmClient() {
+            @Override
+            public String getModel() {
+                return "test-model";
+            }
+
+            @Override
+            public String complete(LlmCallType type, String systemPrompt, String userPrompt, int maxTokens, double temperature)
+                    throws Exception {
+                Thread.sleep(60_000);
+                return "late";
+            }
+        };
+    }
+}
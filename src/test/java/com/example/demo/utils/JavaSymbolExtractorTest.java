@@ -0,0 +1,59 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class JavaSymbolExtractorTest {
+
+    private final JavaSymbolExtractor extractor = new JavaSymbolExtractor();
+
+    static Stream<Arguments> cases() {
+        return Stream.of(
+                // Imports
+                arguments("type import", "import java.util.List;", List.of("java.util.List"), List.of()),
+                arguments("package wildcard is skipped", "import java.util.*;", List.of(), List.of()),
+                arguments("static member import", "import static org.junit.Assert.assertEquals;", List.of("org.junit.Assert"), List.of()),
+                arguments("static wildcard import", "import static org.junit.Assert.*;", List.of("org.junit.Assert"), List.of()),
+                arguments("nested type import", "import java.util.Map.Entry;", List.of("java.util.Map.Entry"), List.of()),
+                arguments("imports on one line", "import a.B;import c.D;", List.of("a.B", "c.D"), List.of()),
+
+                // Exports
+                arguments("public class", "public class A {}", List.of(), List.of("A")),
+                arguments("public final class", "public final class B {}", List.of(), List.of("B")),
+                arguments("public abstract class", "public abstract class C {}", List.of(), List.of("C")),
+                arguments("public interface", "public interface I {}", List.of(), List.of("I")),
+                arguments("public enum", "public enum E { X }", List.of(), List.of("E")),
+                arguments("public record", "public record R(int x) {}", List.of(), List.of("R")),
+                arguments("public annotation", "public @interface Ann {}", List.of(), List.of("Ann")),
+                arguments("sealed interface", "public sealed interface S permits X {}", List.of(), List.of("S")),
+                arguments("non-sealed class", "public non-sealed class N extends S {}", List.of(), List.of("N")),
+                arguments("public nested type", "public class Outer {\n    public static class Inner {}\n}", List.of(), List.of("Outer", "Inner")),
+                arguments("package-private class", "class Hidden {}", List.of(), List.of()),
+                arguments("public members are not types", "class H {\n    public void run() {}\n    public static final int X = 1;\n}", List.of(), List.of()),
+
+                // Comments, strings and other false positives
+                arguments("line comment", "// import a.B;\n// public class X {}", List.of(), List.of()),
+                arguments("block comment", "/* import a.B;\npublic class X {} */", List.of(), List.of()),
+                arguments("javadoc", "/**\n * public class X {}\n */\npublic class Real {}", List.of(), List.of("Real")),
+                arguments("string literal", "String s = \"import a.B; public class X {}\";", List.of(), List.of()),
+                arguments("text block", "String s = \"\"\"\n    import a.B;\n    public class Y {}\n    \"\"\";", List.of(), List.of()),
+                arguments("char literal quote", "char q = '\"';\nimport a.B;", List.of("a.B"), List.of())
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("cases")
+    void extractsImportsAndExports(String name, String source, List<String> imports, List<String> exports) {
+        SourceSymbolExtractor.Symbols symbols = extractor.extract(source);
+
+        assertThat(symbols.getImports()).as("imports").containsExactlyElementsOf(imports);
+        assertThat(symbols.getExports()).as("exports").containsExactlyElementsOf(exports);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class JsSymbolExtractorTest {
+
+    private final JsSymbolExtractor extractor = new JsSymbolExtractor();
+
+    static Stream<Arguments> cases() {
+        return Stream.of(
+                // Imports
+                arguments("default import", "import x from 'a';", List.of("a"), List.of()),
+                arguments("side-effect import", "import './polyfill';", List.of("./polyfill"), List.of()),
+                arguments("named import with alias", "import { a, b as c } from \"./b\";", List.of("./b"), List.of()),
+                arguments("namespace import", "import * as ns from './ns';", List.of("./ns"), List.of()),
+                arguments("default and named import", "import React, { useState } from 'react';", List.of("react"), List.of()),
+                arguments("type import", "import type { T } from './types';", List.of("./types"), List.of()),
+                arguments("multi-line import", "import {\n  a,\n  b,\n} from './multi';", List.of("./multi"), List.of()),
+                arguments("dynamic import", "const m = await import('./lazy');", List.of("./lazy"), List.of()),
+                arguments("require", "const fs = require('fs');", List.of("fs"), List.of()),
+                arguments("require with non-literal argument", "const m = require(name);", List.of(), List.of()),
+                arguments("minified bundle", "import a from'a';import{b}from'b';var c=require('c')", List.of("a", "b", "c"), List.of()),
+
+                // Export declarations
+                arguments("export function", "export function foo() {}", List.of(), List.of("foo")),
+                arguments("export async generator", "export async function* gen() {}", List.of(), List.of("gen")),
+                arguments("export const", "export const a = 1;", List.of(), List.of("a")),
+                arguments("export let", "export let b;", List.of(), List.of("b")),
+                arguments("export class", "export class A {}", List.of(), List.of("A")),
+                arguments("export interface", "export interface I { x: number }", List.of(), List.of("I")),
+                arguments("export type alias", "export type T = string;", List.of(), List.of("T")),
+                arguments("export enum", "export enum E { A }", List.of(), List.of("E")),
+                arguments("export const enum", "export const enum CE { A }", List.of(), List.of("CE")),
+                arguments("export declare abstract class", "export declare abstract class D {}", List.of(), List.of("D")),
+                arguments("export namespace", "export namespace N {}", List.of(), List.of("N")),
+
+                // Default exports
+                arguments("default named class", "export default class B {}", List.of(), List.of("B")),
+                arguments("default named function", "export default function render() {}", List.of(), List.of("render")),
+                arguments("default anonymous function", "export default function () {}", List.of(), List.of("default")),
+                arguments("default anonymous class", "export default class extends Base {}", List.of(), List.of("default")),
+                arguments("default expression", "export default 42;", List.of(), List.of("default")),
+                arguments("TS export assignment", "export = Foo;", List.of(), List.of("default")),
+
+                // Export lists and re-exports
+                arguments("export list with alias", "const a = 1, b = 2;\nexport { a, b as c };", List.of(), List.of("a", "c")),
+                arguments("export type list", "export type { T, U as V };", List.of(), List.of("T", "V")),
+                arguments("named re-export", "export { a } from './re';", List.of("./re"), List.of("a")),
+                arguments("star re-export", "export * from './all';", List.of("./all"), List.of()),
+                arguments("namespace re-export", "export * as ns from './ns';", List.of("./ns"), List.of("ns")),
+
+                // CommonJS exports
+                arguments("exports member", "exports.foo = 1;", List.of(), List.of("foo")),
+                arguments("module.exports member", "module.exports.bar = 2;", List.of(), List.of("bar")),
+                arguments("module.exports object", "module.exports = { a, b: 2, c() { return {d: 1}; } };", List.of(), List.of("a", "b", "c")),
+                arguments("module.exports value", "module.exports = function () {};", List.of(), List.of("default")),
+                arguments("exports comparison is not an export", "if (exports.foo === 1) {}", List.of(), List.of()),
+
+                // Comments, strings and other false positives
+                arguments("line comment", "// import x from 'a';\n// export const y = 1;", List.of(), List.of()),
+                arguments("block comment", "/* import x from 'a';\nexport class C {} */", List.of(), List.of()),
+                arguments("string literal", "const s = \"import x from 'a'\";\nconst t = 'require(\"b\")';", List.of(), List.of()),
+                arguments("template literal", "const t = `import x from 'a' ${require('real')} export const z`;", List.of("real"), List.of()),
+                arguments("regex literal", "const r = /import 'x'/g;", List.of(), List.of()),
+                arguments("member named like a keyword", "obj.require('x');\nloader.import('y');\nm.exports.z = 1;", List.of(), List.of()),
+                arguments("apostrophe in JSX text", "const el = <p>Don't import</p>;\nimport y from 'y';", List.of("y"), List.of())
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("cases")
+    void extractsImportsAndExports(String name, String source, List<String> imports, List<String> exports) {
+        SourceSymbolExtractor.Symbols symbols = extractor.extract(source);
+
+        assertThat(symbols.getImports()).as("imports").containsExactlyElementsOf(imports);
+        assertThat(symbols.getExports()).as("exports").containsExactlyElementsOf(exports);
+    }
+}
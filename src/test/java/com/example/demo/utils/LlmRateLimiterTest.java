@@ -0,0 +1,86 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LlmRateLimiterTest {
+
+    // Delays are computed from System.nanoTime(), so allow for time passing during the test
+    private static final long SLACK_MS = 200;
+
+    @Test
+    void burstUpToTheRequestBudgetIsNotDelayed() {
+        LlmRateLimiter limiter = new LlmRateLimiter(60, 0);
+
+        for (int i = 0; i < 60; i++) {
+            assertThat(limiter.reserve(1)).isZero();
+        }
+        assertThat(limiter.getStats()).containsEntry("calls", 60L).containsEntry("throttledCalls", 0L);
+    }
+
+    @Test
+    void requestsPastTheBudgetAreSpacedOneEmissionIntervalApart() {
+        // 60 rpm: one request per second once the burst is used up
+        LlmRateLimiter limiter = new LlmRateLimiter(60, 0);
+        for (int i = 0; i < 60; i++) limiter.reserve(1);
+
+        assertThat(millis(limiter.reserve(1))).isCloseTo(1000, within(SLACK_MS));
+        assertThat(millis(limiter.reserve(1))).isCloseTo(2000, within(SLACK_MS));
+        assertThat(millis(limiter.reserve(1))).isCloseTo(3000, within(SLACK_MS));
+        assertThat(limiter.getStats()).containsEntry("throttledCalls", 3L);
+    }
+
+    @Test
+    void tokenBudgetDelaysByTheCostOfTheRequest() {
+        // 600 tpm: 10 tokens per second
+        LlmRateLimiter limiter = new LlmRateLimiter(0, 600);
+
+        assertThat(limiter.reserve(600)).isZero();
+        assertThat(millis(limiter.reserve(50))).isCloseTo(5000, within(SLACK_MS));
+        assertThat(millis(limiter.reserve(10))).isCloseTo(6000, within(SLACK_MS));
+    }
+
+    @Test
+    void requestLargerThanTheBudgetIsChargedOneFullWindow() {
+        LlmRateLimiter limiter = new LlmRateLimiter(0, 600);
+
+        assertThat(limiter.reserve(10_000)).isZero();
+        assertThat(millis(limiter.reserve(10_000))).isCloseTo(60_000, within(SLACK_MS));
+    }
+
+    @Test
+    void delayIsTheLongerOfTheTwoBudgets() {
+        LlmRateLimiter limiter = new LlmRateLimiter(60, 600);
+
+        limiter.reserve(600);
+        // Request budget still has room, token budget needs 3 s
+        assertThat(millis(limiter.reserve(30))).isCloseTo(3000, within(SLACK_MS));
+    }
+
+    @Test
+    void disabledLimitsNeverDelay() {
+        LlmRateLimiter limiter = new LlmRateLimiter(0, 0);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(limiter.reserve(100_000)).isZero();
+        }
+    }
+
+    @Test
+    void unusedBudgetDoesNotAccumulatePastOneWindow() throws InterruptedException {
+        LlmRateLimiter limiter = new LlmRateLimiter(600, 0);
+        Thread.sleep(300);
+
+        // Burst is still 600 (one minute of quota), not 600 plus the idle time
+        for (int i = 0; i < 600; i++) limiter.reserve(1);
+        assertThat(limiter.reserve(1)).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmTaskExecutorTest {
+
+    private static final long LARGE = 1L;
+    private static final long SMALL = 2L;
+
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private LlmTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        if (executor != null) executor.shutdown();
+    }
+
+    @Test
+    void loneLargeSubmissionUsesEverySlot() throws Exception {
+        // 4 slots, 1 reserved for small repos, none of which has work
+        executor = new LlmTaskExecutor("virtual", 4, 200, 2, 1, 1);
+        executor.register(LARGE, 1000);
+        executor.register(SMALL, 10);
+
+        for (int i = 0; i < 10; i++) executor.submit(LARGE, this::block);
+        awaitInFlight(4);
+
+        assertThat(executor.getStats()).containsEntry("inFlightLarge", 4).containsEntry("waiting", 6);
+    }
+
+    @Test
+    void largeLaneLeavesReservedSlotsWhileSmallWorkIsQueued() throws Exception {
+        // 2 slots, 1 reserved; a tiny small-lane weight puts the large repo first in fair order
+        executor = new LlmTaskExecutor("virtual", 2, 200, 0.01, 1, 1);
+        executor.register(LARGE, 1000);
+        executor.register(SMALL, 10);
+        CountDownLatch smallGate = new CountDownLatch(1);
+
+        for (int i = 0; i < 2; i++) {
+            executor.submit(SMALL, () -> {
+                smallGate.await();
+                return 0;
+            });
+        }
+        awaitInFlight(2);
+        CompletableFuture<String> queuedSmall = executor.submit(SMALL, () -> "small");
+        for (int i = 0; i < 4; i++) executor.submit(LARGE, this::block);
+
+        // Both slots free up: the large repo is ahead but may only take one of them
+        smallGate.countDown();
+
+        assertThat(queuedSmall.get(5, TimeUnit.SECONDS)).isEqualTo("small");
+        // With no small work left the large repo takes the second slot as well
+        awaitInFlight(2);
+        assertThat(executor.getStats()).containsEntry("inFlightLarge", 2);
+    }
+
+    @Test
+    void smallSubmissionIsServedAheadOfAQueuedLargeOne() throws Exception {
+        executor = new LlmTaskExecutor("virtual", 1, 200, 2, 1, 0);
+        executor.register(LARGE, 1000);
+        executor.register(SMALL, 10);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        CompletableFuture<Integer> blocker = executor.submit(LARGE, this::block);
+        awaitInFlight(1);
+        List<CompletableFuture<Boolean>> all = new ArrayList<>();
+        for (int i = 0; i < 6; i++) all.add(executor.submit(LARGE, () -> order.add("L")));
+        for (int i = 0; i < 3; i++) all.add(executor.submit(SMALL, () -> order.add("S")));
+
+        gate.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(all.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // FIFO would run all six large tasks first; fair queuing puts the small ones up front
+        assertThat(order.subList(0, 4)).containsOnlyOnce("L").contains("S");
+        assertThat(order).hasSize(9);
+    }
+
+    @Test
+    void equalWeightSubmissionsAlternate() throws Exception {
+        executor = new LlmTaskExecutor("virtual", 1, 200, 1, 1, 0);
+        executor.register(LARGE, 1000);
+        executor.register(3L, 1000);
+        List<Long> order = Collections.synchronizedList(new ArrayList<>());
+
+        CompletableFuture<Integer> blocker = executor.submit(LARGE, this::block);
+        awaitInFlight(1);
+        List<CompletableFuture<Boolean>> all = new ArrayList<>();
+        for (int i = 0; i < 4; i++) all.add(executor.submit(LARGE, () -> order.add(LARGE)));
+        for (int i = 0; i < 4; i++) all.add(executor.submit(3L, () -> order.add(3L)));
+
+        gate.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(all.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // Neither submission runs more than twice in a row
+        for (int i = 2; i < order.size(); i++) {
+            assertThat(order.get(i).equals(order.get(i - 1)) && order.get(i).equals(order.get(i - 2)))
+                    .as("three in a row at %d in %s", i, order).isFalse();
+        }
+    }
+
+    @Test
+    void cancelledQueuedTaskDoesNotUseASlot() throws Exception {
+        executor = new LlmTaskExecutor("virtual", 1, 200, 2, 1, 0);
+
+        CompletableFuture<Integer> blocker = executor.submit(LARGE, this::block);
+        awaitInFlight(1);
+        CountDownLatch ran = new CountDownLatch(1);
+        CompletableFuture<Boolean> cancelled = executor.submit(LARGE, () -> {
+            ran.countDown();
+            return true;
+        });
+        cancelled.cancel(true);
+
+        gate.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        assertThat(executor.submit(LARGE, () -> "next").get(5, TimeUnit.SECONDS)).isEqualTo("next");
+        assertThat(ran.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unregisterFailsQueuedTasksAndRejectsNewOnes() throws Exception {
+        executor = new LlmTaskExecutor("virtual", 1, 200, 2, 1, 0);
+        executor.register(SMALL, 10);
+
+        CompletableFuture<Integer> running = executor.submit(SMALL, this::block);
+        awaitInFlight(1);
+        CompletableFuture<String> queued = executor.submit(SMALL, () -> "queued");
+
+        assertThat(executor.unregister(SMALL)).containsEntry("lane", "SMALL").containsEntry("tasks", 1L);
+        assertThat(queued).isCompletedExceptionally();
+        assertThat(executor.getWaiting()).isZero();
+        assertThat(executor.submit(SMALL, () -> "late"))
+                .failsWithin(1, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .withCauseInstanceOf(RejectedExecutionException.class);
+
+        // Running work keeps its slot until it returns
+        gate.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(executor.getStats()).containsEntry("submissions", 0);
+
+        // A retried submission is accepted again
+        executor.register(SMALL, 10);
+        assertThat(executor.submit(SMALL, () -> "retry").get(5, TimeUnit.SECONDS)).isEqualTo("retry");
+    }
+
+    private Integer block() throws InterruptedException {
+        gate.await();
+        return 1;
+    }
+
+    private void awaitInFlight(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getInFlight() < expected && System.nanoTime() < deadline) Thread.sleep(5);
+        assertThat(executor.getInFlight()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class PythonSymbolExtractorTest {
+
+    private final PythonSymbolExtractor extractor = new PythonSymbolExtractor();
+
+    static Stream<Arguments> cases() {
+        return Stream.of(
+                // Imports
+                arguments("import", "import os", List.of("os"), List.of()),
+                arguments("import list with alias", "import a.b, c as d", List.of("a.b", "c"), List.of()),
+                arguments("from import", "from x.y import z", List.of("x.y"), List.of()),
+                arguments("relative module", "from .mod import thing", List.of(".mod"), List.of()),
+                arguments("from package import modules", "from . import a, b as c", List.of(".a", ".b"), List.of()),
+                arguments("parenthesized multi-line import", "from .. import (\n    x,\n    y,\n)", List.of("..x", "..y"), List.of()),
+                arguments("statements after semicolon", "import a; import b", List.of("a", "b"), List.of()),
+                arguments("import inside a function", "def f():\n    import json\n", List.of("json"), List.of("f")),
+
+                // Exports: top-level definitions
+                arguments("top-level definitions", "def f():\n    pass\n\nclass C:\n    pass\n\nasync def g():\n    pass\n",
+                        List.of(), List.of("f", "C", "g")),
+                arguments("nested definitions are not exported", "class C:\n    def m(self):\n        def inner():\n            pass\n",
+                        List.of(), List.of("C")),
+                arguments("decorated definition", "@app.route('/')\ndef index():\n    pass\n", List.of(), List.of("index")),
+
+                // Exports: __all__
+                arguments("__all__ wins over definitions", "__all__ = ['a', 'b']\n\ndef f():\n    pass\n", List.of(), List.of("a", "b")),
+                arguments("__all__ tuple and augmented", "__all__ = ('a',)\n__all__ += [\"b\"]\n", List.of(), List.of("a", "b")),
+                arguments("nested __all__ is ignored", "def f():\n    __all__ = ['x']\n", List.of(), List.of("f")),
+
+                // Comments, strings and other false positives
+                arguments("comment", "# import os\n# def fake(): pass\n", List.of(), List.of()),
+                arguments("string literal", "s = \"import os\"\nt = 'from x import y'\n", List.of(), List.of()),
+                arguments("docstring", "\"\"\"\nimport os\ndef fake():\n    pass\n\"\"\"\n", List.of(), List.of()),
+                arguments("prefixed strings", "s = f'import {x}'\nb = rb\"from y import z\"\n", List.of(), List.of()),
+                arguments("keyword inside brackets", "x = call(\n    import_path,\n    from_dir,\n)\n", List.of(), List.of()),
+                arguments("backslash continuation", "x = 1 + \\\n    2\nimport real\n", List.of("real"), List.of())
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("cases")
+    void extractsImportsAndExports(String name, String source, List<String> imports, List<String> exports) {
+        SourceSymbolExtractor.Symbols symbols = extractor.extract(source);
+
+        assertThat(symbols.getImports()).as("imports").containsExactlyElementsOf(imports);
+        assertThat(symbols.getExports()).as("exports").containsExactlyElementsOf(exports);
+    }
+}
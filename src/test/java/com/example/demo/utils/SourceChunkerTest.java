@@ -0,0 +1,154 @@
+package com.example.demo.utils;
+
+import com.example.demo.model.IssueItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SourceChunkerTest {
+
+    @Test
+    void emptyContentHasNoChunks() {
+        assertThat(SourceChunker.split(null, 100)).isEmpty();
+        assertThat(SourceChunker.split("", 100)).isEmpty();
+    }
+
+    @Test
+    void contentWithinTheBudgetIsOneChunk() {
+        String content = "class A {\n    int x;\n}";
+
+        assertThat(SourceChunker.split(content, 100))
+                .extracting(SourceChunker.Chunk::getStartLine, SourceChunker.Chunk::getEndLine, SourceChunker.Chunk::getText)
+                .containsExactly(tuple(1, 3, content));
+    }
+
+    @Test
+    void cutsAtTheLeastIndentedBoundary() {
+        String[] lines = {
+                "class A {",
+                "    void a() {",
+                "        x();",
+                "    }",
+                "",
+                "    void b() {",
+                "        y();",
+                "    }",
+                "}",
+                "",
+                "class B {",
+                "    int f;",
+                "    void c() {",
+                "        z();",
+                "        w();",
+                "    }",
+                "}"
+        };
+        // Budget reaches "w();": later boundaries exist (void c, w) but class B is less indented
+        int budget = charsOf(lines, 15);
+
+        List<SourceChunker.Chunk> chunks = SourceChunker.split(String.join("\n", lines), budget);
+
+        assertThat(chunks).extracting(SourceChunker.Chunk::getStartLine, SourceChunker.Chunk::getEndLine)
+                .containsExactly(tuple(1, 10), tuple(11, 17));
+        assertThat(chunks.get(1).getText()).startsWith("class B {");
+    }
+
+    @Test
+    void withoutABoundaryCutsAtTheLastLineThatFits() {
+        String[] lines = new String[100];
+        Arrays.fill(lines, "xxxxxxxxx");
+        String content = String.join("\n", lines);
+
+        List<SourceChunker.Chunk> chunks = SourceChunker.split(content, 95);
+
+        assertThat(chunks).hasSize(12);
+        assertThat(chunks.get(0).getEndLine()).isEqualTo(9);
+        assertCovers(chunks, content, 95);
+    }
+
+    @Test
+    void lineNumbersAreContiguousAndOneBased() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            sb.append(i % 7 == 0 ? "\n" : "").append("    statement").append(i).append("();\n");
+        }
+        String content = sb.toString();
+
+        assertCovers(SourceChunker.split(content, 400), content, 400);
+    }
+
+    @Test
+    void overlongLineIsHardSplit() {
+        String content = "x".repeat(2_000_000);
+
+        List<SourceChunker.Chunk> chunks = SourceChunker.split(content, 12_000);
+
+        assertThat(chunks).hasSize(167);
+        assertThat(chunks).allSatisfy(c -> {
+            assertThat(c.getStartLine()).isEqualTo(1);
+            assertThat(c.getEndLine()).isEqualTo(1);
+            assertThat(c.getText().length()).isLessThanOrEqualTo(12_000);
+        });
+        assertThat(String.join("", chunks.stream().map(SourceChunker.Chunk::getText).toList())).isEqualTo(content);
+    }
+
+    @Test
+    void overlongLineKeepsItsNeighboursLineNumbers() {
+        String content = "a;\n" + "y".repeat(25) + "\nb;";
+
+        assertThat(SourceChunker.split(content, 10))
+                .extracting(SourceChunker.Chunk::getStartLine, SourceChunker.Chunk::getEndLine, c -> c.getText().length())
+                .containsExactly(tuple(1, 1, 2), tuple(2, 2, 10), tuple(2, 2, 10), tuple(2, 2, 5), tuple(3, 3, 2));
+    }
+
+    @Test
+    void hardSplitKeepsSurrogatePairsTogether() {
+        String content = "😀".repeat(10);
+
+        List<SourceChunker.Chunk> chunks = SourceChunker.split(content, 3);
+
+        assertThat(chunks).allSatisfy(c -> assertThat(Character.isHighSurrogate(c.getText().charAt(c.getText().length() - 1))).isFalse());
+        assertThat(String.join("", chunks.stream().map(SourceChunker.Chunk::getText).toList())).isEqualTo(content);
+    }
+
+    @Test
+    void shiftLinesMovesChunkRelativeLinesToFileLines() {
+        Map<String, List<IssueItem>> issues = Map.of("errors", List.of(
+                new IssueItem("a", "F.java", 1, 3, "x();", IssueItem.IssueSeverity.HIGH),
+                new IssueItem("b", "F.java", null, null, null, IssueItem.IssueSeverity.LOW)));
+
+        Map<String, List<IssueItem>> shifted = EvaluationService.shiftLines(issues, 40);
+
+        assertThat(shifted.get("errors"))
+                .extracting(IssueItem::getTitle, IssueItem::getLineStart, IssueItem::getLineEnd, IssueItem::getCodeSnippet)
+                .containsExactly(tuple("a", 41, 43, "x();"), tuple("b", null, null, null));
+        assertThat(EvaluationService.shiftLines(issues, 0)).isSameAs(issues);
+    }
+
+    // Chunks are in order, contiguous, within budget and rejoin to the content
+    private static void assertCovers(List<SourceChunker.Chunk> chunks, String content, int maxChars) {
+        List<String> texts = new ArrayList<>();
+        int nextLine = 1;
+        for (SourceChunker.Chunk c : chunks) {
+            assertThat(c.getStartLine()).isEqualTo(nextLine);
+            assertThat(c.getEndLine()).isGreaterThanOrEqualTo(c.getStartLine());
+            assertThat(c.getText().length() + 1).isLessThanOrEqualTo(maxChars);
+            assertThat(c.getText().split("\n", -1)).hasSize(c.getEndLine() - c.getStartLine() + 1);
+            texts.add(c.getText());
+            nextLine = c.getEndLine() + 1;
+        }
+        assertThat(String.join("\n", texts)).isEqualTo(content);
+    }
+
+    private static int charsOf(String[] lines, int count) {
+        int chars = 0;
+        for (int i = 0; i < count; i++) chars += lines[i].length() + 1;
+        return chars;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SummaryCacheTest {
+
+    private static final long TTL_MS = Duration.ofHours(1).toMillis();
+
+    @Test
+    void evictsLeastRecentlyUsedWhenOverTheCharBudget() {
+        SummaryCache cache = new SummaryCache(true, 10, 1, "");
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        // Touch a, so b is the least recently used
+        assertThat(cache.get("a")).contains("aaaa");
+
+        cache.put("c", "cccc");
+
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("a")).contains("aaaa");
+        assertThat(cache.get("c")).contains("cccc");
+        assertThat(cache.getStats())
+                .containsEntry("evictions", 1L)
+                .containsEntry("entries", 2L)
+                .containsEntry("weightChars", 8L);
+    }
+
+    @Test
+    void replacingAnEntryDoesNotCountItTwice() {
+        SummaryCache cache = new SummaryCache(true, 10, 1, "");
+        cache.put("a", "aaaa");
+        cache.put("a", "aaaaaa");
+        cache.put("b", "bbbb");
+
+        assertThat(cache.get("a")).contains("aaaaaa");
+        assertThat(cache.getStats()).containsEntry("evictions", 0L).containsEntry("weightChars", 10L);
+    }
+
+    @Test
+    void summaryLargerThanTheBudgetIsNotKeptInMemory() {
+        SummaryCache cache = new SummaryCache(true, 10, 1, "");
+        cache.put("a", "aaaa");
+        cache.put("big", "x".repeat(11));
+
+        assertThat(cache.get("big")).isEmpty();
+        assertThat(cache.get("a")).contains("aaaa");
+    }
+
+    @Test
+    void diskTierServesEntriesAfterRestart(@TempDir Path dir) {
+        new SummaryCache(true, 1000, 1, dir.toString()).put("a", "summary");
+
+        SummaryCache restarted = new SummaryCache(true, 1000, 1, dir.toString());
+
+        assertThat(restarted.get("a")).contains("summary");
+        assertThat(restarted.get("a")).contains("summary");
+        assertThat(restarted.getStats()).containsEntry("diskHits", 1L).containsEntry("memoryHits", 1L);
+    }
+
+    @Test
+    void expiredDiskEntryIsDeleted(@TempDir Path dir) throws Exception {
+        new SummaryCache(true, 1000, 1, dir.toString()).put("a", "summary");
+        Path file = dir.resolve("a.txt");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - TTL_MS - 1000));
+
+        SummaryCache restarted = new SummaryCache(true, 1000, 1, dir.toString());
+
+        assertThat(restarted.get("a")).isEmpty();
+        assertThat(file).doesNotExist();
+        assertThat(restarted.getStats()).containsEntry("expirations", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void memoryEntryExpiresWithTheTimeItWasWritten(@TempDir Path dir) throws Exception {
+        new SummaryCache(true, 1000, 1, dir.toString()).put("a", "summary");
+        Path file = dir.resolve("a.txt");
+        // Written just under the TTL ago: loaded into memory with that age
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - TTL_MS + 300));
+
+        SummaryCache restarted = new SummaryCache(true, 1000, 1, dir.toString());
+        assertThat(restarted.get("a")).contains("summary");
+        Thread.sleep(500);
+
+        // Both the memory copy and the file have expired
+        assertThat(restarted.get("a")).isEmpty();
+        assertThat(file).doesNotExist();
+        assertThat(restarted.getStats()).containsEntry("expirations", 2L).containsEntry("entries", 0L);
+    }
+
+    @Test
+    void disabledCacheKeepsNothing() {
+        SummaryCache cache = new SummaryCache(false, 1000, 1, "");
+        cache.put("a", "summary");
+
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(cache.getStats()).containsEntry("puts", 0L);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.utils;
+
+import com.example.demo.DbModels.Dto.FolderFileProjection;
+import com.example.demo.DbModels.Project;
+import com.example.demo.DbService.Impl.ProjectService;
+import com.example.demo.DbService.Impl.ProjectStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SummaryServiceTest {
+
+    private final GroqClient groqClient = mock(GroqClient.class);
+    private final ProjectStorageService storage = mock(ProjectStorageService.class);
+    private final ProjectService projectService = mock(ProjectService.class);
+    private final SummaryCache cache = new SummaryCache(true, 10_000, 1, "");
+    private final LlmTaskExecutor executor = new LlmTaskExecutor("virtual", 2, 200, 2, 1, 0);
+    private final SummaryService service = new SummaryService(groqClient, executor, cache, storage, projectService);
+    private final Project project = new Project();
+
+    @BeforeEach
+    void setUp() {
+        project.setSubmissionId(1L);
+        when(groqClient.getModel()).thenReturn("model");
+        when(groqClient.getCompletion(any(), anyString(), anyString(), anyInt(), anyDouble())).thenReturn("combined");
+        when(storage.getFolderFileIndex(project)).thenReturn(Map.of(
+                "", List.of(),
+                "pkg", List.of(new Row("pkg/A.java", "a"), new Row("pkg/B.java", "b"), new Row("pkg/C.java", "c"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void blankFileSummaryDoesNotMakeTheFolderPartial() throws Exception {
+        SummaryPipeline pipeline = service.startPipeline(project);
+        pipeline.onFileSummary("pkg/A.java", "");
+        pipeline.onFileSummary("pkg/B.java", "B");
+        pipeline.onFileSummary("pkg/C.java", "C");
+        pipeline.expectOnly(evaluated("pkg/A.java", "pkg/B.java", "pkg/C.java"));
+
+        assertThat(pipeline.getRootSummary().get(5, TimeUnit.SECONDS)).isEqualTo("combined");
+        assertThat(cache.getStats()).containsEntry("puts", 1L);
+    }
+
+    @Test
+    void failedEvaluationMakesTheFolderPartial() throws Exception {
+        SummaryPipeline pipeline = service.startPipeline(project);
+        pipeline.onFileSummary("pkg/B.java", "B");
+        pipeline.onFileSummary("pkg/C.java", "C");
+        // A's evaluation finishes without reporting a summary
+        pipeline.expectOnly(evaluated("pkg/A.java", "pkg/B.java", "pkg/C.java"));
+
+        assertThat(pipeline.getRootSummary().get(5, TimeUnit.SECONDS)).isEqualTo("combined");
+        assertThat(cache.getStats()).containsEntry("puts", 0L);
+    }
+
+    @Test
+    void storedBlankSummaryCountsAsEvaluated() throws Exception {
+        SummaryPipeline pipeline = service.startPipeline(project);
+        pipeline.completeFrom(Map.of("pkg/A.java", "", "pkg/B.java", "B", "pkg/C.java", "C"));
+
+        assertThat(pipeline.getRootSummary().get(5, TimeUnit.SECONDS)).isEqualTo("combined");
+        assertThat(cache.getStats()).containsEntry("puts", 1L);
+    }
+
+    @Test
+    void fileWithoutAStoredSummaryCountsAsMissing() throws Exception {
+        SummaryPipeline pipeline = service.startPipeline(project);
+        pipeline.completeFrom(Map.of("pkg/B.java", "B", "pkg/C.java", "C"));
+
+        assertThat(pipeline.getRootSummary().get(5, TimeUnit.SECONDS)).isEqualTo("combined");
+        assertThat(cache.getStats()).containsEntry("puts", 0L);
+    }
+
+    private static Map<String, CompletableFuture<?>> evaluated(String... paths) {
+        Map<String, CompletableFuture<?>> out = new HashMap<>();
+        for (String path : paths) out.put(path, CompletableFuture.completedFuture(Map.of()));
+        return out;
+    }
+
+    private record Row(String path, String contentHash) implements FolderFileProjection {
+        @Override
+        public String getFolderPath() {
+            return "pkg";
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public String getContextJson() {
+            return null;
+        }
+
+        @Override
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        @Override
+        public Boolean getEvaluated() {
+            return false;
+        }
+    }
+}